@@ -1,23 +1,70 @@
 package algorithm.inference;
 
+import algorithm.inference.model.ClonalComplex;
+import algorithm.inference.model.EdgeResult;
 import org.neo4j.procedure.Mode;
 import org.neo4j.procedure.Name;
 import org.neo4j.procedure.Procedure;
 
+import java.util.stream.Stream;
+
 public class InferenceProcedures extends algorithm.utils.Procedure {
 
 	/**
 	 * Executes the goeBURST algorithm, for a given dataset within a project with the parameter lvs. The result is stored using the inference id
 	 *
-	 * @param project   project id
-	 * @param dataset   dataset id
-	 * @param lvs       number of lvs
-	 * @param inference inference id
+	 * @param project     project id
+	 * @param dataset     dataset id
+	 * @param lvs         number of lvs
+	 * @param inference   inference id
+	 * @param parallelism number of threads used by the algorithm, where 0 uses all the available processors
+	 * @param offHeap     {@code true} if the distances matrix should be stored outside of the heap
+	 * @param exhaustive  {@code true} if every pair of profiles should be compared, instead of using the partition index
 	 */
 	@Procedure(value = "algorithms.inference.goeburst", mode = Mode.WRITE)
-	public void goeBURST(@Name("project") String project, @Name("dataset") String dataset, @Name("lvs") long lvs, @Name("inference") String inference) {
-		InferenceService service = new InferenceService(database, log);
-		service.goeBURST(project, dataset, inference, lvs);
+	public void goeBURST(@Name("project") String project, @Name("dataset") String dataset, @Name("lvs") long lvs, @Name("inference") String inference,
+						 @Name(value = "parallelism", defaultValue = "0") long parallelism, @Name(value = "offHeap", defaultValue = "false") boolean offHeap,
+						 @Name(value = "exhaustive", defaultValue = "false") boolean exhaustive) {
+		InferenceService service = new InferenceService(database, log, guard);
+		service.goeBURST(project, dataset, inference, lvs, parallelism, offHeap, exhaustive);
+	}
+
+	/**
+	 * Executes the goeBURST algorithm, for a given dataset within a project with the parameter lvs, and yields its edges without storing them
+	 *
+	 * @param project     project id
+	 * @param dataset     dataset id
+	 * @param lvs         number of lvs
+	 * @param parallelism number of threads used by the algorithm, where 0 uses all the available processors
+	 * @param offHeap     {@code true} if the distances matrix should be stored outside of the heap
+	 * @param exhaustive  {@code true} if every pair of profiles should be compared, instead of using the partition index
+	 * @return edges of the inference, as they are accepted by the algorithm
+	 */
+	@Procedure(value = "algorithms.inference.goeburst.stream", mode = Mode.READ)
+	public Stream<EdgeResult> stream(@Name("project") String project, @Name("dataset") String dataset, @Name("lvs") long lvs,
+									 @Name(value = "parallelism", defaultValue = "0") long parallelism, @Name(value = "offHeap", defaultValue = "false") boolean offHeap,
+									 @Name(value = "exhaustive", defaultValue = "false") boolean exhaustive) {
+		InferenceService service = new InferenceService(database, log, guard);
+		return service.stream(project, dataset, lvs, parallelism, offHeap, exhaustive);
+	}
+
+	/**
+	 * Computes the goeBURST clonal complexes of every level up to the lvs, for a given dataset within a project, from a single pass over its profiles
+	 *
+	 * @param project     project id
+	 * @param dataset     dataset id
+	 * @param lvs         maximum level of the complexes
+	 * @param parallelism number of threads used by the algorithm, where 0 uses all the available processors
+	 * @param offHeap     {@code true} if the distances matrix should be stored outside of the heap
+	 * @param exhaustive  {@code true} if every pair of profiles should be compared, instead of using the partition index
+	 * @return complex of each profile at each level
+	 */
+	@Procedure(value = "algorithms.inference.goeburst.complexes", mode = Mode.READ)
+	public Stream<ClonalComplex> complexes(@Name("project") String project, @Name("dataset") String dataset, @Name("lvs") long lvs,
+										   @Name(value = "parallelism", defaultValue = "0") long parallelism, @Name(value = "offHeap", defaultValue = "false") boolean offHeap,
+										   @Name(value = "exhaustive", defaultValue = "false") boolean exhaustive) {
+		InferenceService service = new InferenceService(database, log, guard);
+		return service.complexes(project, dataset, lvs, parallelism, offHeap, exhaustive);
 	}
 
 }
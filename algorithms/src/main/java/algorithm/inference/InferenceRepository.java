@@ -3,102 +3,244 @@ package algorithm.inference;
 import algorithm.inference.model.Edge;
 import algorithm.inference.model.Inference;
 import algorithm.inference.model.Matrix;
+import algorithm.inference.model.SnpMatrix;
+import algorithm.utils.Progress;
 import algorithm.utils.Repository;
 import algorithm.utils.type.*;
 import org.neo4j.graphdb.*;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 /**
  * Class that contains the implementation of the {@link Repository} for inferences
  */
 public class InferenceRepository extends Repository<Inference, Matrix> {
 
+	private final MatrixCache cache;
+
 	public InferenceRepository(GraphDatabaseService database) {
+		this(database, null);
+	}
+
+	public InferenceRepository(GraphDatabaseService database, MatrixCache cache) {
 		super(database);
+		this.cache = cache;
 	}
 
+	/**
+	 * Reads the matrix of the dataset with a {@link ProfilesReader}, or retrieves it from the {@link MatrixCache cache} if none
+	 * of its profiles changed since it was cached
+	 * <p>
+	 * The profiles of a dataset with a SNP schema are read into a {@link SnpMatrix}, unless some allele isn't an upper case nucleotide.
+	 */
 	@Override
 	public Matrix read(Transaction tx, String... params) {
 		String projectId = params[0], datasetId = params[1];
 		Node project = node(Project.LABEL, projectId, tx);
 		Node dataset = related(project, Relation.CONTAINS, Direction.OUTGOING, Dataset.LABEL, datasetId);
-		List<Node> profiles = related(dataset, Relation.CONTAINS, Direction.OUTGOING, Profile.LABEL)
-				.filter(n -> !((boolean) n.getProperty("deprecated")))
-				.collect(Collectors.toList());
-		Node detail = detail(profiles.get(0));
-		int loci = Math.toIntExact((long) relationships(detail, Relation.HAS, Direction.OUTGOING)
-				.findFirst()
-				.orElseThrow(() -> new RuntimeException("loci - profiles size:" + profiles.size()))
-				.getProperty(Allele.TOTAL));
-		int lines = profiles.size();
-		String[] ids = new String[lines];
-		int[] isolates = new int[lines];
-		String[][] alleles = new String[lines][loci];
-		IntStream.range(0, lines)
-				.peek(i -> ids[i] = (String) profiles.get(i).getProperty(Profile.ID))
-				.peek(i -> isolates[i] = Math.toIntExact(relationships(profiles.get(i), Relation.HAS, Direction.INCOMING)
-						.map(r -> r.getStartNode().getSingleRelationship(RelationshipType.withName(Relation.CONTAINS_DETAILS.name()), Direction.INCOMING))
-						.filter(r -> r.getProperty("to", null) == null && !((boolean) r.getStartNode().getProperty("deprecated"))).count()))
-				.forEach(i -> relationships(detail(profiles.get(i)), Relation.HAS, Direction.OUTGOING)
-						.map(r -> new Object[]{Math.toIntExact((long) r.getProperty(Allele.PART)), r.getEndNode().getProperty(Allele.ID)})
-						.forEach(p -> alleles[i][((int) p[0]) - 1] = (String) p[1]));
-		return new Matrix(ids, isolates, alleles);
+		boolean snp = snp(dataset);
+		try (ProfilesReader reader = new ProfilesReader(tx)) {
+			reader.profiles(dataset.getId());
+			if (cache == null)
+				return reader.matrix(snp);
+			Matrix matrix = cache.get(projectId, datasetId, reader.ids(), reader.versions(), reader.isolates());
+			if (matrix == null) {
+				matrix = reader.matrix(snp);
+				cache.put(projectId, datasetId, reader.versions(), matrix);
+			}
+			return matrix;
+		}
 	}
 
+	/**
+	 * Verifies if the current schema of the dataset is of SNP, whose profiles can be kept in a {@link SnpMatrix}
+	 */
+	private boolean snp(Node dataset) {
+		return relationships(dataset, Relation.CONTAINS_DETAILS, Direction.OUTGOING)
+				.filter(r -> r.getProperty("to", null) == null)
+				.flatMap(r -> relationships(r.getEndNode(), Relation.HAS, Direction.OUTGOING))
+				.map(Relationship::getEndNode)
+				.filter(n -> n.hasLabel(Label.label(Schema.LABEL)))
+				.anyMatch(n -> Schema.SNP.equals(n.getProperty(Schema.TYPE, null)));
+	}
+
+	/**
+	 * Stores the edges of the inference within the given transaction
+	 * <p>
+	 * The profiles of the dataset are indexed by id in a single pass, so each edge is written without searching its profiles.
+	 */
 	@Override
 	public void write(Transaction tx, Inference inference) {
-		String inferenceId = inference.getId();
-		String algorithm = inference.getAlgorithm();
 		List<Edge> edges = direct(inference.getEdges());
+		int[] versions = new int[inference.getProfileIds().length];
+		long[] nodes = profiles(tx, inference, edges, versions);
+		write(tx, inference, edges, 0, edges.size(), nodes, versions);
+	}
+
+	/**
+	 * Stores the edges of the inference in batches, where each batch is committed in its own transaction
+	 * <p>
+	 * The profiles of the dataset are indexed by id in a first transaction, and only their node ids and versions are kept
+	 * for the transactions of the batches, so no transaction is held open while the whole inference is written.
+	 * If a batch fails, or the execution is terminated, the batches that were already committed are removed, so a partial
+	 * inference is never left in the dataset.
+	 *
+	 * @param inference inference to store
+	 * @param batch     maximum number of edges written by each transaction
+	 */
+	public void write(Inference inference, int batch) {
+		write(inference, batch, Progress.NONE);
+	}
+
+	/**
+	 * Stores the edges of the inference in batches, and advances the progress as each batch is committed
+	 * <p>
+	 * The progress is verified before each batch, so a terminated execution stops between batches, and its committed batches are removed.
+	 *
+	 * @param inference inference to store
+	 * @param batch     maximum number of edges written by each transaction
+	 * @param progress  progress of the execution
+	 */
+	public void write(Inference inference, int batch, Progress progress) {
+		List<Edge> edges = direct(inference.getEdges());
+		int[] versions = new int[inference.getProfileIds().length];
+		long[] nodes;
+		try (Transaction tx = database.beginTx()) {
+			nodes = profiles(tx, inference, edges, versions);
+			tx.commit();
+		}
+		int written = 0;
+		try {
+			progress.phase(WRITE, edges.size());
+			for (int start = 0; start < edges.size(); start += batch) {
+				int end = Math.min(start + batch, edges.size());
+				progress.check();
+				try (Transaction tx = database.beginTx()) {
+					write(tx, inference, edges, start, end, nodes, versions);
+					tx.commit();
+				}
+				written = end;
+				progress.advance(end - start);
+			}
+		} catch (RuntimeException e) {
+			try {
+				remove(inference, edges, written, batch, nodes);
+			} catch (RuntimeException suppressed) {
+				e.addSuppressed(suppressed);
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Removes the edges of the inference that were already written by the committed batches, in batches of the same size
+	 */
+	private void remove(Inference inference, List<Edge> edges, int written, int batch, long[] nodes) {
+		for (int start = 0; start < written; start += batch) {
+			try (Transaction tx = database.beginTx()) {
+				for (Edge edge : edges.subList(start, Math.min(start + batch, written))) {
+					long to = nodes[edge.to()];
+					relationships(tx.getNodeById(nodes[edge.from()]), Relation.DISTANCES, Direction.OUTGOING)
+							.filter(r -> r.getEndNodeId() == to && inference.getId().equals(r.getProperty(Distance.ID, null)))
+							.collect(Collectors.toList())
+							.forEach(Relationship::delete);
+				}
+				tx.commit();
+			}
+		}
+	}
+
+	/**
+	 * Resolves the node ids and the versions of the profiles referenced by the edges, which are indexed by the profile indexes
+	 */
+	private long[] profiles(Transaction tx, Inference inference, List<Edge> edges, int[] versions) {
 		String[] ids = inference.getProfileIds();
 		Node project = node(Project.LABEL, inference.getProjectId(), tx);
 		Node dataset = related(project, Relation.CONTAINS, Direction.OUTGOING, Dataset.LABEL, inference.getDatasetId());
+		Map<Object, Node> profiles = new HashMap<>();
+		related(dataset, Relation.CONTAINS, Direction.OUTGOING, Profile.LABEL).forEach(n -> profiles.putIfAbsent(n.getProperty(Profile.ID), n));
+		long[] nodes = new long[ids.length];
+		Arrays.fill(nodes, -1);
 		for (Edge edge : edges) {
-			Node from = related(dataset, Relation.CONTAINS, Direction.OUTGOING, Profile.LABEL, ids[edge.from()]);
-			int fromVersion = version(from);
-			Node to = related(dataset, Relation.CONTAINS, Direction.OUTGOING, Profile.LABEL, ids[edge.to()]);
-			int toVersion = version(to);
+			for (int profile : new int[]{edge.from(), edge.to()}) {
+				if (nodes[profile] != -1)
+					continue;
+				Node node = profiles.get(ids[profile]);
+				if (node == null)
+					throw new RuntimeException("related " + dataset.getProperty("id") + " " + Relation.CONTAINS.name() + " " + Profile.LABEL + " " + ids[profile]);
+				nodes[profile] = node.getId();
+				versions[profile] = version(node);
+			}
+		}
+		return nodes;
+	}
+
+	private void write(Transaction tx, Inference inference, List<Edge> edges, int start, int end, long[] nodes, int[] versions) {
+		for (Edge edge : edges.subList(start, end)) {
 			Map<String, Object> properties = new HashMap<>();
-			properties.put(Distance.ID, inferenceId);
-			properties.put(Distance.ALGORITHM, algorithm);
+			properties.put(Distance.ID, inference.getId());
+			properties.put(Distance.ALGORITHM, inference.getAlgorithm());
 			properties.put(Distance.DISTANCE, edge.distance());
-			properties.put(Distance.FROM_VERSION, fromVersion);
-			properties.put(Distance.TO_VERSION, toVersion);
+			properties.put(Distance.FROM_VERSION, versions[edge.from()]);
+			properties.put(Distance.TO_VERSION, versions[edge.to()]);
 			properties.put(Distance.DEPRECATED, false);
-			createRelationship(from, to, Relation.DISTANCES, properties);
+			createRelationship(tx.getNodeById(nodes[edge.from()]), tx.getNodeById(nodes[edge.to()]), Relation.DISTANCES, properties);
 		}
 	}
 
+	/**
+	 * Directs the edges of a forest away from the root of each tree, where the root of a tree is the origin of its first edge
+	 * that isn't the destination of any edge
+	 * <p>
+	 * The trees are traversed in breadth-first order with an adjacency list over primitive arrays, so it takes linear time.
+	 */
 	private List<Edge> direct(List<Edge> edges) {
-		List<Edge> directed = new ArrayList<>();
-		List<Edge> toDirect = new ArrayList<>(edges);
-		while (!toDirect.isEmpty()) {
-			Integer root = toDirect.stream()
-					.map(Edge::from)
-					.filter(i -> edges.stream().noneMatch(edge -> edge.to() == i))
-					.findFirst()
-					.orElseThrow(RuntimeException::new);
-			directed.addAll(directEdges(toDirect, root));
+		int size = 0;
+		for (Edge edge : edges)
+			size = Math.max(size, Math.max(edge.from(), edge.to()) + 1);
+		int[] incoming = new int[size], starts = new int[size + 1];
+		for (Edge edge : edges) {
+			incoming[edge.to()]++;
+			starts[edge.from() + 1]++;
+			starts[edge.to() + 1]++;
 		}
-		return directed;
-	}
-
-	private List<Edge> directEdges(List<Edge> tree, int root) {
-		List<Edge> edges = tree.stream().filter(e -> e.from() == root || e.to() == root).collect(Collectors.toList());
-		tree.removeAll(edges);
-		List<Edge> directed = new ArrayList<>();
+		for (int v = 0; v < size; v++)
+			starts[v + 1] += starts[v];
+		int[] adjacent = new int[starts[size]], positions = Arrays.copyOf(starts, size);
+		for (int e = 0; e < edges.size(); e++) {
+			adjacent[positions[edges.get(e).from()]++] = e;
+			adjacent[positions[edges.get(e).to()]++] = e;
+		}
+		List<Edge> directed = new ArrayList<>(edges.size());
+		boolean[] visited = new boolean[size];
+		int[] queue = new int[size];
 		for (Edge edge : edges) {
-			if (edge.to() == root)
-				edge = new Edge(edge.to(), edge.from(), edge.distance());
-			directed.add(edge);
-			directed.addAll(directEdges(tree, edge.to()));
+			int root = edge.from();
+			if (visited[root] || incoming[root] > 0)
+				continue;
+			int head = 0, tail = 0;
+			queue[tail++] = root;
+			visited[root] = true;
+			while (head < tail) {
+				int v = queue[head++];
+				for (int k = starts[v]; k < starts[v + 1]; k++) {
+					Edge adjacentEdge = edges.get(adjacent[k]);
+					int w = adjacentEdge.from() == v ? adjacentEdge.to() : adjacentEdge.from();
+					if (visited[w])
+						continue;
+					visited[w] = true;
+					queue[tail++] = w;
+					directed.add(adjacentEdge.from() == v ? adjacentEdge : new Edge(v, w, adjacentEdge.distance()));
+				}
+			}
 		}
+		if (directed.size() != edges.size())
+			throw new RuntimeException("direct - edges size:" + edges.size() + " directed size:" + directed.size());
 		return directed;
 	}
 
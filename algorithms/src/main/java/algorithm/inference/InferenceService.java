@@ -1,12 +1,20 @@
 package algorithm.inference;
 
+import algorithm.utils.Progress;
+import algorithm.utils.Repository;
 import algorithm.utils.Service;
 import algorithm.inference.implementation.GoeBURST;
+import algorithm.inference.model.ClonalComplex;
+import algorithm.inference.model.EdgeResult;
 import algorithm.inference.model.Inference;
 import algorithm.inference.model.Matrix;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Transaction;
 import org.neo4j.logging.Log;
+import org.neo4j.procedure.TerminationGuard;
+
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * Class that contains operations to execute inference algorithms
@@ -15,32 +23,97 @@ import org.neo4j.logging.Log;
  */
 public class InferenceService extends Service {
 
+	public static final int BATCH = 10000;
+
 	public InferenceService(GraphDatabaseService database, Log log) {
 		super(database, log);
 	}
 
+	public InferenceService(GraphDatabaseService database, Log log, TerminationGuard guard) {
+		super(database, log, guard);
+	}
+
 	/**
 	 * Executes the goeBURST algorithm, with the data resulting from the inference identified in the parameters, and stores the result
+	 * <p>
+	 * The progress of the execution is registered by the inference id while it runs, and it stops once the procedure that called it is terminated.
+	 *
+	 * @param project     project id
+	 * @param dataset     dataset id
+	 * @param analysis    inference id
+	 * @param lvs         number of lvs
+	 * @param parallelism number of threads used by the algorithm
+	 * @param offHeap     {@code true} if the distances matrix should be stored outside of the heap
+	 * @param exhaustive  {@code true} if every pair of profiles should be compared, instead of using the partition index
+	 */
+	public void goeBURST(String project, String dataset, String analysis, long lvs, long parallelism, boolean offHeap, boolean exhaustive) {
+		InferenceRepository repository = new InferenceRepository(database, MatrixCache.instance());
+		GoeBURST algorithm = new GoeBURST();
+		algorithm.init(project, dataset, analysis, lvs, parallelism, offHeap, exhaustive);
+		try (Progress progress = progress(project, analysis)) {
+			algorithm.setProgress(progress);
+			Matrix matrix;
+			progress.phase(Repository.READ, 0);
+			try (Transaction tx1 = database.beginTx()) {
+				matrix = repository.read(tx1, project, dataset);
+				tx1.commit();
+			}
+			Inference inference = algorithm.compute(matrix);
+			repository.write(inference, BATCH, progress);
+		}
+	}
+
+	/**
+	 * Executes the goeBURST algorithm, with the data of the dataset identified in the parameters, and yields its edges without storing them
 	 *
-	 * @param project  project id
-	 * @param dataset  dataset id
-	 * @param analysis inference id
-	 * @param lvs      number of lvs
+	 * @param project     project id
+	 * @param dataset     dataset id
+	 * @param lvs         number of lvs
+	 * @param parallelism number of threads used by the algorithm
+	 * @param offHeap     {@code true} if the distances matrix should be stored outside of the heap
+	 * @param exhaustive  {@code true} if every pair of profiles should be compared, instead of using the partition index
+	 * @return edges of the inference, as they are accepted by the algorithm
 	 */
-	public void goeBURST(String project, String dataset, String analysis, long lvs) {
-		InferenceRepository repository = new InferenceRepository(database);
+	public Stream<EdgeResult> stream(String project, String dataset, long lvs, long parallelism, boolean offHeap, boolean exhaustive) {
+		InferenceRepository repository = new InferenceRepository(database, MatrixCache.instance());
 		GoeBURST algorithm = new GoeBURST();
-		algorithm.init(project, dataset, analysis, lvs);
+		algorithm.init(project, dataset, null, lvs, parallelism, offHeap, exhaustive);
+		algorithm.setProgress(progress(project, null));
 		Matrix matrix;
-		try (Transaction tx1 = database.beginTx()) {
-			matrix = repository.read(tx1, project, dataset);
-			tx1.commit();
+		try (Transaction tx = database.beginTx()) {
+			matrix = repository.read(tx, project, dataset);
+			tx.commit();
 		}
-		Inference inference = algorithm.compute(matrix);
-		try (Transaction tx2 = database.beginTx()) {
-			repository.write(tx2, inference);
-			tx2.commit();
+		String[] ids = matrix.getIds();
+		return algorithm.stream(matrix).map(e -> new EdgeResult(ids[e.from()], ids[e.to()], e.distance()));
+	}
+
+	/**
+	 * Computes the clonal complexes of every level up to the lvs with the goeBURST candidates, from a single read of the profiles
+	 *
+	 * @param project     project id
+	 * @param dataset     dataset id
+	 * @param lvs         maximum level of the complexes
+	 * @param parallelism number of threads used by the algorithm
+	 * @param offHeap     {@code true} if the distances matrix should be stored outside of the heap
+	 * @param exhaustive  {@code true} if every pair of profiles should be compared, instead of using the partition index
+	 * @return complex of each profile at each level
+	 */
+	public Stream<ClonalComplex> complexes(String project, String dataset, long lvs, long parallelism, boolean offHeap, boolean exhaustive) {
+		InferenceRepository repository = new InferenceRepository(database, MatrixCache.instance());
+		GoeBURST algorithm = new GoeBURST();
+		algorithm.init(project, dataset, null, lvs, parallelism, offHeap, exhaustive);
+		algorithm.setProgress(progress(project, null));
+		Matrix matrix;
+		try (Transaction tx = database.beginTx()) {
+			matrix = repository.read(tx, project, dataset);
+			tx.commit();
 		}
+		int[][] complexes = algorithm.complexes(matrix);
+		String[] ids = matrix.getIds();
+		return IntStream.range(0, complexes.length)
+				.boxed()
+				.flatMap(d -> IntStream.range(0, ids.length).mapToObj(i -> new ClonalComplex(ids[i], d + 1, complexes[d][i])));
 	}
 
 }
@@ -0,0 +1,120 @@
+package algorithm.inference;
+
+import algorithm.inference.model.Matrix;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Class that caches the encoded profiles and the isolates counts of the datasets, so the inferences over an unchanged dataset don't read it again
+ * <p>
+ * The entries are kept by project and dataset, along with the ids and the versions of the profiles they were read from, and an entry
+ * is only used while these are the same, otherwise it is invalidated. The isolates counts aren't part of the key, since an isolate
+ * can be deprecated without changing any version, so they are always taken from the read that retrieves the entry. The entries are evicted by least recent use, whenever their
+ * estimated size exceeds the {@link #capacity} in bytes. The cached profiles are shared by every {@link Matrix#copy() copy} that is returned,
+ * so they must not be modified.
+ */
+public class MatrixCache {
+
+	public static final String CAPACITY = "algorithms.cache.capacity";
+
+	private static final MatrixCache INSTANCE = new MatrixCache(Long.getLong(CAPACITY, Runtime.getRuntime().maxMemory() / 8));
+
+	private final long capacity;
+	private final LinkedHashMap<List<String>, Entry> entries;
+	private long size;
+
+	public MatrixCache(long capacity) {
+		this.capacity = capacity;
+		this.entries = new LinkedHashMap<>(16, 0.75f, true);
+	}
+
+	/**
+	 * Retrieves the cache shared by the procedures of the plugin, whose capacity is given by the system property {@link #CAPACITY}
+	 *
+	 * @return shared cache
+	 */
+	public static MatrixCache instance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Retrieves the matrix of a dataset, if it was cached with the same profiles and versions
+	 *
+	 * @param project  project id
+	 * @param dataset  dataset id
+	 * @param ids      ids of the profiles of the dataset
+	 * @param versions versions of the profiles of the dataset
+	 * @param isolates current isolates counts of the profiles of the dataset
+	 * @return matrix without computed distances, with the given isolates counts, or {@code null} if there isn't a valid entry
+	 */
+	public synchronized Matrix get(String project, String dataset, String[] ids, long[] versions, int[] isolates) {
+		List<String> key = Arrays.asList(project, dataset);
+		Entry entry = entries.get(key);
+		if (entry == null)
+			return null;
+		if (!Arrays.equals(entry.matrix.getIds(), ids) || !Arrays.equals(entry.versions, versions)) {
+			remove(key);
+			return null;
+		}
+		return entry.matrix.copy(isolates);
+	}
+
+	/**
+	 * Caches the matrix of a dataset, evicting the least recently used entries if needed
+	 *
+	 * @param project  project id
+	 * @param dataset  dataset id
+	 * @param versions versions of the profiles of the dataset
+	 * @param matrix   matrix of the dataset
+	 */
+	public synchronized void put(String project, String dataset, long[] versions, Matrix matrix) {
+		List<String> key = Arrays.asList(project, dataset);
+		remove(key);
+		Entry entry = new Entry(matrix.copy(), versions);
+		if (entry.bytes > capacity)
+			return;
+		entries.put(key, entry);
+		size += entry.bytes;
+		Iterator<Entry> iterator = entries.values().iterator();
+		while (size > capacity) {
+			size -= iterator.next().bytes;
+			iterator.remove();
+		}
+	}
+
+	/**
+	 * Retrieves the estimated size of the cached entries
+	 *
+	 * @return size in bytes
+	 */
+	public synchronized long size() {
+		return size;
+	}
+
+	private void remove(List<String> key) {
+		Entry entry = entries.remove(key);
+		if (entry != null)
+			size -= entry.bytes;
+	}
+
+	/**
+	 * Entry of the cache, with the estimated size of its profiles in {@link #bytes}
+	 */
+	private static class Entry {
+
+		private final Matrix matrix;
+		private final long[] versions;
+		private final long bytes;
+
+		private Entry(Matrix matrix, long[] versions) {
+			this.matrix = matrix;
+			this.versions = versions;
+			this.bytes = matrix.bytes() + (long) versions.length * Long.BYTES;
+		}
+
+	}
+
+}
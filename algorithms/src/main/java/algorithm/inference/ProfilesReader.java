@@ -0,0 +1,247 @@
+package algorithm.inference;
+
+import algorithm.inference.model.AlleleDictionary;
+import algorithm.inference.model.Matrix;
+import algorithm.inference.model.SnpMatrix;
+import algorithm.utils.type.Allele;
+import algorithm.utils.type.Profile;
+import algorithm.utils.type.Relation;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.internal.kernel.api.*;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.kernel.api.KernelTransaction;
+import org.neo4j.kernel.impl.coreapi.InternalTransaction;
+import org.neo4j.storageengine.api.RelationshipSelection;
+import org.neo4j.values.storable.BooleanValue;
+import org.neo4j.values.storable.NumberValue;
+import org.neo4j.values.storable.TextValue;
+import org.neo4j.values.storable.Value;
+
+import java.util.Arrays;
+
+/**
+ * Class that reads the profiles of a dataset into a {@link Matrix matrix} with the read cursors of the kernel
+ * <p>
+ * The tokens of the labels, relationship types and property keys are resolved once, and the cursors are allocated once and
+ * reused for every profile, so the profiles are read into primitive arrays without creating objects for the nodes and relationships.
+ * The profiles are read by {@link #profiles(long)}, with their ids, versions, current details and isolates counts, and their
+ * alleles are only read by {@link #matrix(boolean)}, so they don't need to be read when the matrix is cached.
+ */
+public class ProfilesReader implements AutoCloseable {
+
+	private static final String DEPRECATED = "deprecated", TO = "to", VERSION = "version";
+
+	private final Read read;
+	private final int profile;
+	private final int contains, containsDetails, has;
+	private final int id, deprecated, to, version, part, total;
+	private final NodeCursor node;
+	private final NodeCursor other;
+	private final RelationshipTraversalCursor relationships;
+	private final RelationshipTraversalCursor details;
+	private final PropertyCursor properties;
+
+	private int size;
+	private String[] ids = new String[0];
+	private long[] versions = new long[0];
+	private long[] currents = new long[0];
+	private int[] isolates = new int[0];
+
+	public ProfilesReader(Transaction tx) {
+		KernelTransaction ktx = ((InternalTransaction) tx).kernelTransaction();
+		TokenRead tokens = ktx.tokenRead();
+		CursorFactory cursors = ktx.cursors();
+		PageCursorTracer tracer = ktx.pageCursorTracer();
+		this.read = ktx.dataRead();
+		this.profile = tokens.nodeLabel(Profile.LABEL);
+		this.contains = tokens.relationshipType(Relation.CONTAINS.name());
+		this.containsDetails = tokens.relationshipType(Relation.CONTAINS_DETAILS.name());
+		this.has = tokens.relationshipType(Relation.HAS.name());
+		this.id = tokens.propertyKey(Profile.ID);
+		this.deprecated = tokens.propertyKey(DEPRECATED);
+		this.to = tokens.propertyKey(TO);
+		this.version = tokens.propertyKey(VERSION);
+		this.part = tokens.propertyKey(Allele.PART);
+		this.total = tokens.propertyKey(Allele.TOTAL);
+		this.node = cursors.allocateNodeCursor(tracer);
+		this.other = cursors.allocateNodeCursor(tracer);
+		this.relationships = cursors.allocateRelationshipTraversalCursor(tracer);
+		this.details = cursors.allocateRelationshipTraversalCursor(tracer);
+		this.properties = cursors.allocatePropertyCursor(tracer, ktx.memoryTracker());
+	}
+
+	/**
+	 * Reads the profiles of the dataset that aren't deprecated, with their ids, versions and isolates counts
+	 * <p>
+	 * The version of each profile is the version of its current details, and its isolates count only counts the current details
+	 * of the isolates that aren't deprecated.
+	 *
+	 * @param dataset node id of the dataset
+	 * @return this reader
+	 */
+	public ProfilesReader profiles(long dataset) {
+		long[] profiles = new long[16];
+		size = 0;
+		read.singleNode(dataset, node);
+		if (node.next()) {
+			node.relationships(relationships, RelationshipSelection.selection(contains, Direction.OUTGOING));
+			while (relationships.next()) {
+				long target = relationships.otherNodeReference();
+				read.singleNode(target, other);
+				if (other.next() && other.hasLabel(profile) && !bool(nodeProperty(other, deprecated))) {
+					if (size == profiles.length)
+						profiles = Arrays.copyOf(profiles, size * 2);
+					profiles[size++] = target;
+				}
+			}
+		}
+		ids = new String[size];
+		versions = new long[size];
+		currents = new long[size];
+		isolates = new int[size];
+		for (int i = 0; i < size; i++) {
+			read.singleNode(profiles[i], node);
+			node.next();
+			ids[i] = ((TextValue) nodeProperty(node, id)).stringValue();
+			currents[i] = -1;
+			node.relationships(relationships, RelationshipSelection.selection(containsDetails, Direction.OUTGOING));
+			while (relationships.next() && currents[i] == -1) {
+				if (relationshipProperty(relationships, to) == null) {
+					currents[i] = relationships.otherNodeReference();
+					versions[i] = number(relationshipProperty(relationships, version));
+				}
+			}
+			if (currents[i] == -1)
+				throw new RuntimeException("detail " + ids[i] + " " + Profile.LABEL);
+			node.relationships(relationships, RelationshipSelection.selection(has, Direction.INCOMING));
+			while (relationships.next())
+				if (isolate(relationships.otherNodeReference()))
+					isolates[i]++;
+		}
+		return this;
+	}
+
+	/**
+	 * Reads the alleles of the profiles read by {@link #profiles(long)}
+	 *
+	 * @param snp {@code true} if the profiles should be packed in a {@link SnpMatrix}, which is only done if every allele is an upper case nucleotide
+	 * @return matrix of the profiles
+	 */
+	public Matrix matrix(boolean snp) {
+		int loci = loci();
+		if (snp) {
+			SnpMatrix matrix = new SnpMatrix(ids, isolates, loci);
+			if (alleles((i, locus, allele) -> allele.length() == 1 && matrix.set(i, locus, allele.charAt(0))))
+				return matrix;
+		}
+		int[][] alleles = new int[loci][size];
+		AlleleDictionary dictionary = new AlleleDictionary(loci);
+		alleles((i, locus, allele) -> {
+			alleles[locus][i] = dictionary.encode(locus, allele);
+			return true;
+		});
+		return new Matrix(ids, isolates, alleles);
+	}
+
+	public String[] ids() {
+		return ids;
+	}
+
+	public long[] versions() {
+		return versions;
+	}
+
+	public int[] isolates() {
+		return isolates;
+	}
+
+	@Override
+	public void close() {
+		node.close();
+		other.close();
+		relationships.close();
+		details.close();
+		properties.close();
+	}
+
+	/**
+	 * Consumer of an allele of a profile, which returns {@code false} to stop reading the alleles
+	 */
+	@FunctionalInterface
+	private interface AlleleConsumer {
+
+		boolean accept(int profile, int locus, String allele);
+
+	}
+
+	private int loci() {
+		if (size > 0) {
+			read.singleNode(currents[0], node);
+			if (node.next()) {
+				node.relationships(relationships, RelationshipSelection.selection(has, Direction.OUTGOING));
+				if (relationships.next())
+					return Math.toIntExact(number(relationshipProperty(relationships, total)));
+			}
+		}
+		throw new RuntimeException("loci - profiles size:" + size);
+	}
+
+	private boolean alleles(AlleleConsumer consumer) {
+		for (int i = 0; i < size; i++) {
+			read.singleNode(currents[i], node);
+			node.next();
+			node.relationships(relationships, RelationshipSelection.selection(has, Direction.OUTGOING));
+			while (relationships.next()) {
+				int locus = Math.toIntExact(number(relationshipProperty(relationships, part))) - 1;
+				read.singleNode(relationships.otherNodeReference(), other);
+				other.next();
+				if (!consumer.accept(i, locus, ((TextValue) nodeProperty(other, id)).stringValue()))
+					return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Verifies if the details of an isolate are its current details, and if the isolate isn't deprecated
+	 */
+	private boolean isolate(long detail) {
+		read.singleNode(detail, other);
+		if (!other.next())
+			return false;
+		other.relationships(details, RelationshipSelection.selection(containsDetails, Direction.INCOMING));
+		if (!details.next() || relationshipProperty(details, to) != null)
+			return false;
+		read.singleNode(details.otherNodeReference(), other);
+		return other.next() && !bool(nodeProperty(other, deprecated));
+	}
+
+	private Value nodeProperty(NodeCursor cursor, int key) {
+		cursor.properties(properties);
+		return property(key);
+	}
+
+	private Value relationshipProperty(RelationshipTraversalCursor cursor, int key) {
+		cursor.properties(properties);
+		return property(key);
+	}
+
+	private Value property(int key) {
+		if (key == TokenRead.NO_TOKEN)
+			return null;
+		while (properties.next())
+			if (properties.propertyKey() == key)
+				return properties.propertyValue();
+		return null;
+	}
+
+	private static boolean bool(Value value) {
+		return value != null && ((BooleanValue) value).booleanValue();
+	}
+
+	private static long number(Value value) {
+		return ((NumberValue) value).longValue();
+	}
+
+}
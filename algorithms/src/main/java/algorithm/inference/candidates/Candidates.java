@@ -0,0 +1,34 @@
+package algorithm.inference.candidates;
+
+import algorithm.inference.model.Edges;
+import algorithm.inference.model.Matrix;
+import algorithm.utils.Progress;
+
+/**
+ * Class that defines how the candidate edges of an inference algorithm are generated
+ * <p>
+ * The candidates are the pairs of profiles whose distance is between 1 and a threshold. They are returned in one {@link Edges}
+ * bucket for each distance, where the bucket {@code d - 1} contains the edges with distance {@code d}, and each edge goes
+ * from the lower profile index to the higher one.
+ */
+public interface Candidates {
+
+	/**
+	 * Generates the candidate edges of the matrix
+	 *
+	 * @param matrix      matrix with the profiles
+	 * @param threshold   maximum distance of the candidates
+	 * @param parallelism degree of parallelism, or 0 to use all the available processors
+	 * @param progress    progress of the execution
+	 * @return candidates bucketed by distance
+	 */
+	Edges[] generate(Matrix matrix, int threshold, int parallelism, Progress progress);
+
+	static Edges[] buckets(int threshold) {
+		Edges[] buckets = new Edges[threshold];
+		for (int d = 0; d < threshold; d++)
+			buckets[d] = new Edges();
+		return buckets;
+	}
+
+}
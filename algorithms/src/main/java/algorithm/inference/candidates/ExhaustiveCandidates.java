@@ -0,0 +1,35 @@
+package algorithm.inference.candidates;
+
+import algorithm.inference.model.Distances;
+import algorithm.inference.model.Edges;
+import algorithm.inference.model.Matrix;
+import algorithm.utils.Progress;
+
+/**
+ * ExhaustiveCandidates generates the candidates by computing the distances between every pair of profiles of the {@link Matrix matrix}
+ */
+public class ExhaustiveCandidates implements Candidates {
+
+	private final boolean offHeap;
+
+	public ExhaustiveCandidates(boolean offHeap) {
+		this.offHeap = offHeap;
+	}
+
+	@Override
+	public Edges[] generate(Matrix matrix, int threshold, int parallelism, Progress progress) {
+		matrix.compute(parallelism, offHeap, threshold, progress);
+		Edges[] buckets = Candidates.buckets(threshold);
+		Distances distances = matrix.getDistances();
+		for (int i = 0; i < matrix.size(); i++) {
+			long index = Distances.index(i, 0);
+			for (int j = 0; j < i; j++) {
+				int distance = distances.get(index + j);
+				if (distance > 0 && distance <= threshold)
+					buckets[distance - 1].add(j, i);
+			}
+		}
+		return buckets;
+	}
+
+}
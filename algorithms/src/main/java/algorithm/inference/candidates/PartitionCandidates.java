@@ -0,0 +1,156 @@
+package algorithm.inference.candidates;
+
+import algorithm.inference.model.AlleleDictionary;
+import algorithm.inference.model.Edges;
+import algorithm.inference.model.Matrix;
+import algorithm.utils.Parallelism;
+import algorithm.utils.Progress;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * PartitionCandidates generates the candidates with a pigeonhole partition index over the encoded alleles of the {@link Matrix matrix}
+ * <p>
+ * The loci are split in {@code threshold + 1} parts, so two profiles whose distance is at most the threshold must have equal alleles,
+ * none of them missing, in at least one of the parts. The profiles are grouped by the alleles of each part, and only the pairs
+ * within the same group are compared. A pair is only compared in the first part where their alleles are equal, so it is never
+ * generated twice. When there are not more loci than the threshold, every pair is a candidate, so it falls back to {@link ExhaustiveCandidates}, which is
+ * also used when the alleles aren't encoded by locus, as in a {@link algorithm.inference.model.SnpMatrix}.
+ */
+public class PartitionCandidates implements Candidates {
+
+	public static final String PHASE = "candidates";
+
+	private final boolean offHeap;
+
+	public PartitionCandidates(boolean offHeap) {
+		this.offHeap = offHeap;
+	}
+
+	@Override
+	public Edges[] generate(Matrix matrix, int threshold, int parallelism, Progress progress) {
+		int loci = matrix.loci();
+		if (threshold >= loci || matrix.getAlleles() == null)
+			return new ExhaustiveCandidates(offHeap).generate(matrix, threshold, parallelism, progress);
+		int parts = threshold + 1;
+		progress.phase(PHASE, parts);
+		int[] bounds = new int[parts + 1];
+		for (int p = 0; p <= parts; p++)
+			bounds[p] = (int) ((long) p * loci / parts);
+		List<Part> tasks = new ArrayList<>();
+		for (int p = 0; p < parts; p++)
+			tasks.add(new Part(matrix.getAlleles(), matrix.size(), bounds, p, threshold, progress));
+		if (Parallelism.threads(parallelism) == 1)
+			tasks.forEach(Part::compute);
+		else
+			Parallelism.invoke(parallelism, new RecursiveAction() {
+				@Override
+				protected void compute() {
+					invokeAll(tasks);
+				}
+			});
+		Edges[] buckets = Candidates.buckets(threshold);
+		for (Part task : tasks)
+			for (int d = 0; d < threshold; d++)
+				buckets[d].addAll(task.buckets[d]);
+		return buckets;
+	}
+
+	/**
+	 * Task that generates the candidates whose first part with equal alleles is the given part
+	 */
+	private static class Part extends RecursiveAction {
+
+		private final int[][] alleles;
+		private final int size;
+		private final int[] bounds;
+		private final int part;
+		private final int threshold;
+		private final Progress progress;
+		private Edges[] buckets;
+
+		private Part(int[][] alleles, int size, int[] bounds, int part, int threshold, Progress progress) {
+			this.alleles = alleles;
+			this.size = size;
+			this.bounds = bounds;
+			this.part = part;
+			this.threshold = threshold;
+			this.progress = progress;
+		}
+
+		@Override
+		protected void compute() {
+			int begin = bounds[part], end = bounds[part + 1];
+			long[] keys = new long[size];
+			int count = 0;
+			for (int i = 0; i < size; i++) {
+				int hash = 1;
+				boolean missing = false;
+				for (int l = begin; l < end && !missing; l++) {
+					int allele = alleles[l][i];
+					missing = allele == AlleleDictionary.MISSING;
+					hash = 31 * hash + allele;
+				}
+				if (!missing)
+					keys[count++] = (long) hash << 32 | i;
+			}
+			Arrays.sort(keys, 0, count);
+			buckets = Candidates.buckets(threshold);
+			for (int first = 0, last; first < count; first = last) {
+				progress.check();
+				int hash = (int) (keys[first] >> 32);
+				last = first + 1;
+				while (last < count && (int) (keys[last] >> 32) == hash)
+					last++;
+				for (int a = first + 1; a < last; a++) {
+					int i = (int) keys[a];
+					for (int b = first; b < a; b++) {
+						int j = (int) keys[b];
+						if (!equal(i, j, begin, end) || earlier(i, j))
+							continue;
+						int distance = distance(i, j, begin, end);
+						if (distance > 0 && distance <= threshold)
+							buckets[distance - 1].add(j, i);
+					}
+				}
+			}
+			progress.advance(1);
+		}
+
+		private boolean equal(int i, int j, int begin, int end) {
+			for (int l = begin; l < end; l++)
+				if (alleles[l][i] != alleles[l][j])
+					return false;
+			return true;
+		}
+
+		private boolean earlier(int i, int j) {
+			for (int p = 0; p < part; p++) {
+				boolean equal = true;
+				for (int l = bounds[p]; l < bounds[p + 1] && equal; l++)
+					equal = alleles[l][i] != AlleleDictionary.MISSING && alleles[l][i] == alleles[l][j];
+				if (equal)
+					return true;
+			}
+			return false;
+		}
+
+		private int distance(int i, int j, int begin, int end) {
+			return differences(i, j, end, alleles.length, differences(i, j, 0, begin, 0));
+		}
+
+		private int differences(int i, int j, int from, int to, int distance) {
+			for (int l = from; l < to && distance <= threshold; l++) {
+				int allele = alleles[l][i];
+				if (allele == AlleleDictionary.MISSING || allele != alleles[l][j])
+					distance++;
+			}
+			return distance;
+		}
+
+	}
+
+}
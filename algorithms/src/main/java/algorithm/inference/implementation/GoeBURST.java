@@ -1,12 +1,17 @@
 package algorithm.inference.implementation;
 
-import algorithm.inference.model.Edge;
-import algorithm.inference.model.Inference;
-import algorithm.inference.model.Matrix;
+import algorithm.inference.candidates.Candidates;
+import algorithm.inference.candidates.ExhaustiveCandidates;
+import algorithm.inference.candidates.PartitionCandidates;
+import algorithm.inference.model.*;
+import algorithm.utils.IntSort;
+import algorithm.utils.Parallelism;
+import algorithm.utils.Progress;
 
-import java.util.Comparator;
-import java.util.Iterator;
-import java.util.stream.IntStream;
+import java.util.*;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * GoeBURST is an InferenceAlgorithm which implements the goeBURST algorithm
@@ -14,7 +19,11 @@ import java.util.stream.IntStream;
 public class GoeBURST extends InferenceAlgorithm {
 
 	public static final String NAME = "goeburst";
+	public static final String SPAN = "span", COMPLEXES = "complexes";
 	private int lvs;
+	private int parallelism = 1;
+	private boolean offHeap;
+	private boolean exhaustive;
 
 	@Override
 	public void init(Object... params) {
@@ -22,47 +31,169 @@ public class GoeBURST extends InferenceAlgorithm {
 		this.datasetId = (String) params[1];
 		this.id = (String) params[2];
 		this.lvs = Math.toIntExact((long) params[3]);
+		if (params.length > 4)
+			this.parallelism = Math.toIntExact((long) params[4]);
+		if (params.length > 5)
+			this.offHeap = (boolean) params[5];
+		if (params.length > 6)
+			this.exhaustive = (boolean) params[6];
 	}
 
 	@Override
 	public Inference compute(Matrix matrix) {
 		Inference inference = new Inference(projectId, datasetId, id, matrix.getIds(), NAME);
-		int size = matrix.size();
-		int[][] lv = new int[size][lvs];
-		int[] clusters = new int[size];
-		Iterator<Edge> it = IntStream.range(0, size)
-				.peek(i -> clusters[i] = i)
-				.mapToObj(i -> IntStream.range(0, i)
-						.mapToObj(j -> new Edge(j, i, matrix.distance(i, j)))
-						.filter(edge -> edge.distance() > 0 && edge.distance() <= lvs)
-						.peek(e -> {
-							lv[e.to()][e.distance() - 1]++;
-							lv[e.from()][e.distance() - 1]++;
-						}))
-				.flatMap(i -> i)
-				.sorted(Comparator.comparingInt(Edge::distance).thenComparing((i, j) -> tiebreak(lv, matrix.getIsolates(), matrix.getIds(), i.from(), i.to(), j.from(), j.to())))
-				.iterator();
-		while (it.hasNext() && inference.edges().count() < size - 1) {
-			Edge edge = it.next();
-			if (clusters[edge.from()] != clusters[edge.to()]) {
-				int i = clusters[edge.from()];
-				int j = clusters[edge.to()];
-				for (int index = 0; index < clusters.length; index++)
-					if (clusters[index] == j)
-						clusters[index] = i;
-				inference.add(edge);
+		Forest forest = forest(matrix);
+		progress.phase(SPAN, forest.size());
+		for (int c = 0; c < forest.size(); c++) {
+			if (forest.edges(c) > IntSort.SEQUENTIAL) {
+				progress.check();
+				IntSort.sort(forest.order, forest.starts[c], forest.starts[c + 1], forest.comparator, parallelism);
 			}
 		}
+		List<Span> spans = new ArrayList<>();
+		for (int first = 0, last, edges; first < forest.size(); first = last) {
+			for (last = first, edges = 0; last < forest.size() && edges <= IntSort.SEQUENTIAL; last++)
+				edges += forest.edges(last);
+			spans.add(new Span(forest, first, last, progress));
+		}
+		if (Parallelism.threads(parallelism) == 1 || spans.size() == 1)
+			spans.forEach(Span::compute);
+		else
+			Parallelism.invoke(parallelism, new RecursiveAction() {
+				@Override
+				protected void compute() {
+					invokeAll(spans);
+				}
+			});
+		for (int e : forest.accepted)
+			inference.add(new Edge(forest.from[e], forest.to[e], forest.distance[e]));
 		return inference;
 	}
 
-	private int tiebreak(int[][] lv, int[] isolates, String[] ids, int ifrom, int ito, int jfrom, int jto) {
+	/**
+	 * Computes the edges of the goeBURST forest lazily, as they are accepted by Kruskal
+	 * <p>
+	 * The components of the threshold graph are spanned one at a time, in order of their lowest profile index, and the
+	 * edges of a component are only sorted when the previous component was consumed. The accepted edges aren't kept,
+	 * so the memory doesn't grow with the number of edges consumed.
+	 *
+	 * @param matrix matrix with the profiles
+	 * @return edges of the forest, each from the lower profile index to the higher one
+	 */
+	public Stream<Edge> stream(Matrix matrix) {
+		Forest forest = forest(matrix);
+		progress.phase(SPAN, forest.size());
+		Iterator<Edge> iterator = new Iterator<Edge>() {
+
+			private int component = -1, position, end, remaining;
+			private Edge next;
+
+			@Override
+			public boolean hasNext() {
+				while (next == null) {
+					if (position == end || remaining == 0) {
+						if (component >= 0)
+							progress.advance(1);
+						if (++component == forest.size())
+							return false;
+						position = forest.starts[component];
+						end = forest.starts[component + 1];
+						remaining = forest.nodes[component] - 1;
+						IntSort.sort(forest.order, position, end, forest.comparator, forest.edges(component) > IntSort.SEQUENTIAL ? parallelism : 1);
+						continue;
+					}
+					int e = forest.order[position++];
+					if (forest.clusters.union(forest.from[e], forest.to[e])) {
+						remaining--;
+						next = new Edge(forest.from[e], forest.to[e], forest.distance[e]);
+					}
+				}
+				return true;
+			}
+
+			@Override
+			public Edge next() {
+				if (!hasNext())
+					throw new NoSuchElementException();
+				Edge edge = next;
+				next = null;
+				return edge;
+			}
+
+		};
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+	}
+
+	/**
+	 * Generates the candidates and groups them by the components of the threshold graph, with the comparator that orders them
+	 */
+	private Forest forest(Matrix matrix) {
+		int size = matrix.size();
+		Edges[] buckets = candidates(matrix);
+		int count = Arrays.stream(buckets).mapToInt(Edges::size).sum();
+		int[] from = new int[count], to = new int[count], distance = new int[count];
+		int[][] lv = new int[lvs][size];
+		UnionFind components = new UnionFind(size);
+		for (int d = 0, e = 0; d < lvs; d++) {
+			for (int k = 0; k < buckets[d].size(); k++, e++) {
+				from[e] = buckets[d].from(k);
+				to[e] = buckets[d].to(k);
+				distance[e] = d + 1;
+				lv[d][from[e]]++;
+				lv[d][to[e]]++;
+				components.union(from[e], to[e]);
+			}
+		}
+		int[] isolates = matrix.getIsolates();
+		int[] ranks = ranks(matrix.getIds());
+		IntSort.Comparator comparator = (i, j) -> {
+			int diff = Integer.compare(distance[i], distance[j]);
+			return diff != 0 ? diff : tiebreak(lv, isolates, ranks, from[i], to[i], from[j], to[j]);
+		};
+		return new Forest(components, from, to, distance, comparator);
+	}
+
+	/**
+	 * Computes the clonal complexes of every level up to the lvs, where the complexes of level {@code d} are the connected
+	 * components of the graph with the candidate edges whose distance is at most {@code d}
+	 * <p>
+	 * The candidates are generated once, and the components of each level are obtained by merging the components of the
+	 * previous level with the edges of its distance. The complexes are numbered by order of their lowest profile index.
+	 *
+	 * @param matrix matrix with the profiles
+	 * @return complex of each profile, where {@code complexes[d - 1][i]} is the complex of the profile {@code i} at level {@code d}
+	 */
+	public int[][] complexes(Matrix matrix) {
+		Edges[] buckets = candidates(matrix);
+		int[][] complexes = new int[lvs][];
+		UnionFind components = new UnionFind(matrix.size());
+		progress.phase(COMPLEXES, lvs);
+		for (int d = 0; d < lvs; d++) {
+			for (int k = 0; k < buckets[d].size(); k++)
+				components.union(buckets[d].from(k), buckets[d].to(k));
+			complexes[d] = components.labels();
+			progress.advance(1);
+		}
+		return complexes;
+	}
+
+	private Edges[] candidates(Matrix matrix) {
+		Candidates candidates = exhaustive ? new ExhaustiveCandidates(offHeap) : new PartitionCandidates(offHeap);
+		return candidates.generate(matrix, lvs, parallelism, progress);
+	}
+
+	/**
+	 * Compares two edges with the same distance, by the number of lvs of its profiles at each level, then by the number of
+	 * isolates of its profiles, and then by the order of its profiles, which is given by the indexes and by the ids ranks
+	 */
+	private int tiebreak(int[][] lv, int[] isolates, int[] ranks, int ifrom, int ito, int jfrom, int jto) {
 		int diff;
 		for (int index = 0; index < lvs; index++) {
-			diff = Integer.compare(Math.max(lv[jfrom][index], lv[jto][index]), Math.max(lv[ifrom][index], lv[ito][index]));
+			int[] level = lv[index];
+			diff = Integer.compare(Math.max(level[jfrom], level[jto]), Math.max(level[ifrom], level[ito]));
 			if (diff != 0)
 				return diff;
-			diff = Integer.compare(Math.min(lv[jfrom][index], lv[jto][index]), Math.min(lv[ifrom][index], lv[ito][index]));
+			diff = Integer.compare(Math.min(level[jfrom], level[jto]), Math.min(level[ifrom], level[ito]));
 			if (diff != 0)
 				return diff;
 		}
@@ -73,11 +204,129 @@ public class GoeBURST extends InferenceAlgorithm {
 		if (diff != 0)
 			return diff;
 		diff = Integer.compare(Math.min(ifrom, ito), Math.min(jfrom, jto));
-		return diff != 0 ? diff : compare(ids[compare(ids[ifrom], ids[ito]) > 0 ? ifrom : ito], ids[compare(ids[jfrom], ids[jto]) > 0 ? jfrom : jto]);
+		if (diff != 0)
+			return diff;
+		diff = Integer.compare(Math.max(ranks[ifrom], ranks[ito]), Math.max(ranks[jfrom], ranks[jto]));
+		return diff != 0 ? diff : Integer.compare(Math.max(ifrom, ito), Math.max(jfrom, jto));
+	}
+
+	/**
+	 * Ranks the profiles by the order of their ids, where equal ids have the same rank
+	 */
+	private int[] ranks(String[] ids) {
+		int[] order = new int[ids.length];
+		for (int i = 0; i < ids.length; i++)
+			order[i] = i;
+		IntSort.sort(order, (i, j) -> compare(ids[i], ids[j]), parallelism);
+		int[] ranks = new int[ids.length];
+		for (int k = 0, rank = 0; k < order.length; k++) {
+			if (k > 0 && compare(ids[order[k - 1]], ids[order[k]]) != 0)
+				rank = k;
+			ranks[order[k]] = rank;
+		}
+		return ranks;
 	}
 
 	private int compare(String s1, String s2) {
 		return s1.length() == s2.length() ? s1.compareTo(s2) : (s1.length() - s2.length());
 	}
 
+	/**
+	 * Helper class that groups the candidate edges by the connected component of the threshold graph they belong to
+	 * <p>
+	 * The components are numbered by order of their lowest profile index, and the edges of each component are kept in
+	 * the range [{@link #starts}{@code [c]}, {@link #starts}{@code [c + 1]}) of the {@link #order}. The edges accepted for
+	 * each component are kept in the range [{@link #results}{@code [c]}, {@link #results}{@code [c + 1]}) of the {@link #accepted}.
+	 */
+	private static class Forest {
+
+		private final int[] from;
+		private final int[] to;
+		private final int[] distance;
+		private final IntSort.Comparator comparator;
+		private final UnionFind clusters;
+		private final int[] nodes;
+		private final int[] starts;
+		private final int[] order;
+		private final int[] results;
+		private final int[] accepted;
+
+		private Forest(UnionFind components, int[] from, int[] to, int[] distance, IntSort.Comparator comparator) {
+			this.from = from;
+			this.to = to;
+			this.distance = distance;
+			this.comparator = comparator;
+			int size = components.size();
+			int[] labels = components.labels();
+			int count = 0;
+			for (int label : labels)
+				count = Math.max(count, label + 1);
+			this.nodes = new int[count];
+			for (int v = 0; v < size; v++)
+				nodes[labels[v]]++;
+			this.starts = new int[count + 1];
+			for (int v : from)
+				starts[labels[v] + 1]++;
+			this.results = new int[count + 1];
+			for (int c = 0; c < count; c++) {
+				starts[c + 1] += starts[c];
+				results[c + 1] = results[c] + nodes[c] - 1;
+			}
+			this.order = new int[from.length];
+			int[] positions = Arrays.copyOf(starts, count);
+			for (int e = 0; e < from.length; e++)
+				order[positions[labels[from[e]]]++] = e;
+			this.accepted = new int[results[count]];
+			this.clusters = new UnionFind(size);
+		}
+
+		private int size() {
+			return nodes.length;
+		}
+
+		private int edges(int component) {
+			return starts[component + 1] - starts[component];
+		}
+
+	}
+
+	/**
+	 * Task that sorts the edges of a range of components and computes their minimum spanning trees
+	 * <p>
+	 * The components are disjoint, so the tasks of different ranges can share the same {@link UnionFind}.
+	 */
+	private static class Span extends RecursiveAction {
+
+		private final Forest forest;
+		private final int first;
+		private final int last;
+		private final Progress progress;
+
+		private Span(Forest forest, int first, int last, Progress progress) {
+			this.forest = forest;
+			this.first = first;
+			this.last = last;
+			this.progress = progress;
+		}
+
+		@Override
+		protected void compute() {
+			UnionFind clusters = forest.clusters;
+			for (int c = first; c < last; c++) {
+				progress.check();
+				int start = forest.starts[c], end = forest.starts[c + 1];
+				if (forest.edges(c) <= IntSort.SEQUENTIAL)
+					IntSort.sort(forest.order, start, end, forest.comparator, 1);
+				int accepted = forest.results[c], total = forest.results[c + 1];
+				for (int k = start; k < end && accepted < total; k++) {
+					int e = forest.order[k];
+					if (clusters.union(forest.from[e], forest.to[e]))
+						forest.accepted[accepted++] = e;
+				}
+			}
+			progress.advance(last - first);
+		}
+
+	}
+
 }
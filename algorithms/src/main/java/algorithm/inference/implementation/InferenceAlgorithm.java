@@ -1,6 +1,7 @@
 package algorithm.inference.implementation;
 
 import algorithm.utils.Algorithm;
+import algorithm.utils.Progress;
 import algorithm.inference.model.Inference;
 import algorithm.inference.model.Matrix;
 
@@ -13,4 +14,15 @@ public abstract class InferenceAlgorithm implements Algorithm<Matrix, Inference>
 	protected String datasetId;
 	protected String id;
 
+	protected Progress progress = Progress.NONE;
+
+	/**
+	 * Defines the progress where the algorithm reports its phases, and which is polled to verify if the execution was terminated
+	 *
+	 * @param progress progress of the execution
+	 */
+	public void setProgress(Progress progress) {
+		this.progress = progress;
+	}
+
 }
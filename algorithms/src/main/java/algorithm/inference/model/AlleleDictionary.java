@@ -0,0 +1,43 @@
+package algorithm.inference.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An allele dictionary is used to encode the alleles ids of each locus into dense integer codes
+ * <p>
+ * An allele dictionary is constituted by the {@link #codes} field, which contains a dictionary for each locus. The codes of a locus
+ * are assigned by order of appearance starting at 1, since the {@link #MISSING} code is reserved for missing alleles.
+ */
+public class AlleleDictionary {
+
+	public static final int MISSING = 0;
+
+	private final Map<String, Integer>[] codes;
+
+	@SuppressWarnings("unchecked")
+	public AlleleDictionary(int loci) {
+		this.codes = new Map[loci];
+		for (int l = 0; l < loci; l++)
+			this.codes[l] = new HashMap<>();
+	}
+
+	public int loci() {
+		return codes.length;
+	}
+
+	/**
+	 * Encodes the allele id of the given locus, assigning it a new code if it was never seen in that locus
+	 *
+	 * @param locus  locus index
+	 * @param allele allele id
+	 * @return allele code, or {@link #MISSING} if the allele id is null
+	 */
+	public int encode(int locus, String allele) {
+		if (allele == null)
+			return MISSING;
+		Map<String, Integer> dictionary = codes[locus];
+		return dictionary.computeIfAbsent(allele, k -> dictionary.size() + 1);
+	}
+
+}
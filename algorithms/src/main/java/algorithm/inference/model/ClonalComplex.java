@@ -0,0 +1,21 @@
+package algorithm.inference.model;
+
+/**
+ * A clonal complex assignment is used to represent the clonal complex of a profile at a given level of a goeBURST hierarchy
+ * <p>
+ * A clonal complex assignment is constituted by the {@link #profile} id, by the {@link #level} that is the maximum distance of the
+ * edges that connect the complex, and by the {@link #complex} number, which is unique within the level.
+ */
+public class ClonalComplex {
+
+	public final String profile;
+	public final long level;
+	public final long complex;
+
+	public ClonalComplex(String profile, long level, long complex) {
+		this.profile = profile;
+		this.level = level;
+		this.complex = complex;
+	}
+
+}
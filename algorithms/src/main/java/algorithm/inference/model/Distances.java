@@ -0,0 +1,236 @@
+package algorithm.inference.model;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Distances is a packed store for the lower triangular part of a {@link Matrix matrix}
+ * <p>
+ * The distance between the profiles {@code i} and {@code j}, with {@code i > j}, is kept in the cell {@link #index(int, int)}
+ * of a flat store, whose cells are as narrow as the {@link #maximum} distance allows. The store is kept in a primitive array,
+ * or in direct {@link ByteBuffer buffers} when it is off-heap.
+ */
+public abstract class Distances {
+
+	public static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+
+	protected final int size;
+	protected final int maximum;
+
+	protected Distances(int size, int maximum) {
+		this.size = size;
+		this.maximum = maximum;
+	}
+
+	/**
+	 * Allocates a store with the narrowest cells that can hold the given maximum distance
+	 *
+	 * @param size    number of profiles
+	 * @param maximum maximum distance to be stored
+	 * @param offHeap {@code true} if the store should be kept outside of the heap
+	 * @return empty store
+	 */
+	public static Distances allocate(int size, int maximum, boolean offHeap) {
+		int width = maximum <= 0xFF ? Byte.BYTES : maximum <= 0xFFFF ? Short.BYTES : Integer.BYTES;
+		long cells = cells(size);
+		if (offHeap)
+			return new Buffers(size, maximum, width, cells);
+		if (cells > MAX_ARRAY_LENGTH)
+			throw new IllegalArgumentException("distances " + size + " profiles exceed the heap store, use the off-heap store");
+		switch (width) {
+			case Byte.BYTES:
+				return new Bytes(size, maximum, (int) cells);
+			case Short.BYTES:
+				return new Shorts(size, maximum, (int) cells);
+			default:
+				return new Ints(size, maximum, (int) cells);
+		}
+	}
+
+	/**
+	 * Number of cells of the lower triangular part of a matrix with the given size
+	 *
+	 * @param size number of profiles
+	 * @return number of cells
+	 */
+	public static long cells(int size) {
+		return (long) size * (size - 1) / 2;
+	}
+
+	/**
+	 * Index of the cell that holds the distance between the profiles {@code i} and {@code j}
+	 *
+	 * @param i profile index, which must be greater than {@code j}
+	 * @param j profile index
+	 * @return cell index
+	 */
+	public static long index(int i, int j) {
+		return (long) i * (i - 1) / 2 + j;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int maximum() {
+		return maximum;
+	}
+
+	/**
+	 * Number of bytes used by each cell of the store
+	 *
+	 * @return cell width
+	 */
+	public abstract int width();
+
+	public abstract int get(long index);
+
+	public abstract void set(long index, int value);
+
+	/**
+	 * Store with unsigned byte cells
+	 */
+	private static class Bytes extends Distances {
+
+		private final byte[] cells;
+
+		private Bytes(int size, int maximum, int cells) {
+			super(size, maximum);
+			this.cells = new byte[cells];
+		}
+
+		@Override
+		public int width() {
+			return Byte.BYTES;
+		}
+
+		@Override
+		public int get(long index) {
+			return cells[(int) index] & 0xFF;
+		}
+
+		@Override
+		public void set(long index, int value) {
+			cells[(int) index] = (byte) value;
+		}
+
+	}
+
+	/**
+	 * Store with unsigned short cells
+	 */
+	private static class Shorts extends Distances {
+
+		private final short[] cells;
+
+		private Shorts(int size, int maximum, int cells) {
+			super(size, maximum);
+			this.cells = new short[cells];
+		}
+
+		@Override
+		public int width() {
+			return Short.BYTES;
+		}
+
+		@Override
+		public int get(long index) {
+			return cells[(int) index] & 0xFFFF;
+		}
+
+		@Override
+		public void set(long index, int value) {
+			cells[(int) index] = (short) value;
+		}
+
+	}
+
+	/**
+	 * Store with int cells
+	 */
+	private static class Ints extends Distances {
+
+		private final int[] cells;
+
+		private Ints(int size, int maximum, int cells) {
+			super(size, maximum);
+			this.cells = new int[cells];
+		}
+
+		@Override
+		public int width() {
+			return Integer.BYTES;
+		}
+
+		@Override
+		public int get(long index) {
+			return cells[(int) index];
+		}
+
+		@Override
+		public void set(long index, int value) {
+			cells[(int) index] = value;
+		}
+
+	}
+
+	/**
+	 * Off-heap store, split in direct buffers of {@link #CHUNK} bytes, since a buffer can not be indexed beyond an int
+	 */
+	private static class Buffers extends Distances {
+
+		private static final int SHIFT = 30;
+		private static final int CHUNK = 1 << SHIFT;
+		private static final long MASK = CHUNK - 1;
+
+		private final int width;
+		private final ByteBuffer[] chunks;
+
+		private Buffers(int size, int maximum, int width, long cells) {
+			super(size, maximum);
+			this.width = width;
+			long bytes = cells * width;
+			this.chunks = new ByteBuffer[Math.toIntExact((bytes + CHUNK - 1) >> SHIFT)];
+			for (int c = 0; c < chunks.length; c++)
+				chunks[c] = ByteBuffer.allocateDirect((int) Math.min(CHUNK, bytes - ((long) c << SHIFT)));
+		}
+
+		@Override
+		public int width() {
+			return width;
+		}
+
+		@Override
+		public int get(long index) {
+			long position = index * width;
+			ByteBuffer chunk = chunks[(int) (position >> SHIFT)];
+			int offset = (int) (position & MASK);
+			switch (width) {
+				case Byte.BYTES:
+					return chunk.get(offset) & 0xFF;
+				case Short.BYTES:
+					return chunk.getShort(offset) & 0xFFFF;
+				default:
+					return chunk.getInt(offset);
+			}
+		}
+
+		@Override
+		public void set(long index, int value) {
+			long position = index * width;
+			ByteBuffer chunk = chunks[(int) (position >> SHIFT)];
+			int offset = (int) (position & MASK);
+			switch (width) {
+				case Byte.BYTES:
+					chunk.put(offset, (byte) value);
+					break;
+				case Short.BYTES:
+					chunk.putShort(offset, (short) value);
+					break;
+				default:
+					chunk.putInt(offset, value);
+			}
+		}
+
+	}
+
+}
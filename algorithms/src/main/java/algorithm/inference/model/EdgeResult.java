@@ -0,0 +1,20 @@
+package algorithm.inference.model;
+
+/**
+ * An edge result is used to represent an {@link Edge edge} of an inference that is yielded by a procedure, without being stored
+ * <p>
+ * An edge result is constituted by the {@link #from} and {@link #to} profiles ids, and by the {@link #distance} between them.
+ */
+public class EdgeResult {
+
+	public final String from;
+	public final String to;
+	public final long distance;
+
+	public EdgeResult(String from, String to, long distance) {
+		this.from = from;
+		this.to = to;
+		this.distance = distance;
+	}
+
+}
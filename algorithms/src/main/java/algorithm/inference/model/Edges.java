@@ -0,0 +1,50 @@
+package algorithm.inference.model;
+
+import java.util.Arrays;
+
+/**
+ * Edges is a packed list of candidate {@link Edge edges} which have the same distance
+ * <p>
+ * Edges is constituted by the {@link #from} and {@link #to} profiles references of each edge, kept in primitive arrays, and
+ * by the {@link #size} of the list. The edges are referenced by their position in the list.
+ */
+public class Edges {
+
+	private static final int CAPACITY = 16;
+
+	private int[] from;
+	private int[] to;
+	private int size;
+
+	public Edges() {
+		this.from = new int[CAPACITY];
+		this.to = new int[CAPACITY];
+	}
+
+	public void add(int from, int to) {
+		if (size == this.from.length) {
+			this.from = Arrays.copyOf(this.from, size * 2);
+			this.to = Arrays.copyOf(this.to, size * 2);
+		}
+		this.from[size] = from;
+		this.to[size++] = to;
+	}
+
+	public void addAll(Edges edges) {
+		for (int e = 0; e < edges.size; e++)
+			add(edges.from[e], edges.to[e]);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int from(int edge) {
+		return from[edge];
+	}
+
+	public int to(int edge) {
+		return to[edge];
+	}
+
+}
@@ -1,31 +1,152 @@
 package algorithm.inference.model;
 
+import algorithm.utils.Parallelism;
+import algorithm.utils.Progress;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+
 /**
  * A matrix represents the differences between the profiles of an dataset
+ * <p>
+ * The alleles of the profiles are kept encoded by an {@link AlleleDictionary}, in column-major order, which means that
+ * {@link #alleles}{@code [l][i]} is the code of the allele of the profile {@code i} at the locus {@code l}.
+ * The {@link #distances} are computed by {@link #compute(int, boolean, int)}, or sequentially when they are first needed, and are
+ * kept in a packed {@link Distances} store. When they are computed with a {@link #threshold}, every distance above it is stored
+ * as the sentinel {@code threshold + 1}.
  */
 public class Matrix {
 
+	public static final int TILE = 128;
+	public static final int LOCI = 32;
+	public static final int UNBOUNDED = -1;
+	public static final String PHASE = "distances";
+	protected static final long ARRAY = 16, REFERENCE = 8, STRING = 56;
+
 	private final String[] ids;
 	private final int[] isolates;
-	private final int[][] distances;
+	private final int[][] alleles;
+	protected Distances distances;
+	protected int threshold = UNBOUNDED;
 
 	public Matrix(String[] ids, int[] isolates, String[][] allelesIds) {
+		this(ids, isolates, encode(allelesIds));
+	}
+
+	public Matrix(String[] ids, int[] isolates, int[][] alleles) {
 		this.ids = ids;
 		this.isolates = isolates;
-		this.distances = new int[ids.length][];
-		for (int i = 0; i < ids.length; i++) {
-			this.distances[i] = new int[i];
-			for (int j = 0; j < i; j++) {
-				int differences = 0;
-				for (int l = 0; l < allelesIds[0].length; l++) {
-					String il = allelesIds[i][l];
-					String jl = allelesIds[j][l];
-					if (il == null || !il.equals(jl))
-						differences++;
+		this.alleles = alleles;
+	}
+
+	/**
+	 * Encodes the alleles ids of the profiles, given in row-major order, into column-major allele codes
+	 *
+	 * @param allelesIds alleles ids of each profile, where a null id represents a missing allele
+	 * @return allele codes of each locus
+	 */
+	public static int[][] encode(String[][] allelesIds) {
+		int loci = allelesIds.length == 0 ? 0 : allelesIds[0].length;
+		AlleleDictionary dictionary = new AlleleDictionary(loci);
+		int[][] alleles = new int[loci][allelesIds.length];
+		for (int l = 0; l < loci; l++)
+			for (int i = 0; i < allelesIds.length; i++)
+				alleles[l][i] = dictionary.encode(l, allelesIds[i][l]);
+		return alleles;
+	}
+
+	/**
+	 * Computes the full lower triangular distances matrix
+	 *
+	 * @param parallelism number of threads used to compute the distances, or 0 to use all the available processors
+	 * @param offHeap     {@code true} if the distances should be stored outside of the heap
+	 * @return this matrix
+	 * @see #compute(int, boolean, int)
+	 */
+	public Matrix compute(int parallelism, boolean offHeap) {
+		return compute(parallelism, offHeap, UNBOUNDED);
+	}
+
+	/**
+	 * Computes the lower triangular distances matrix, split in tiles of {@link #TILE} rows by {@link #TILE} columns
+	 * <p>
+	 * Each band of rows is computed by a different task of a fork-join pool, and within a band the tiles are computed
+	 * locus by locus, so that the columns being compared remain in cache. The result does not depend on the parallelism.
+	 * When a threshold is given, the loci are compared in blocks of {@link #LOCI}, and after each block the pairs whose
+	 * distance is already above the threshold are no longer compared.
+	 *
+	 * @param parallelism number of threads used to compute the distances, or 0 to use all the available processors
+	 * @param offHeap     {@code true} if the distances should be stored outside of the heap
+	 * @param threshold   maximum distance that must be known exactly, or {@link #UNBOUNDED}
+	 * @return this matrix
+	 */
+	public Matrix compute(int parallelism, boolean offHeap, int threshold) {
+		return compute(parallelism, offHeap, threshold, Progress.NONE);
+	}
+
+	/**
+	 * Computes the lower triangular distances matrix, reporting the rows computed in the phase {@link #PHASE} of the progress
+	 *
+	 * @param parallelism number of threads used to compute the distances, or 0 to use all the available processors
+	 * @param offHeap     {@code true} if the distances should be stored outside of the heap
+	 * @param threshold   maximum distance that must be known exactly, or {@link #UNBOUNDED}
+	 * @param progress    progress of the execution
+	 * @return this matrix
+	 * @see #compute(int, boolean, int)
+	 */
+	public Matrix compute(int parallelism, boolean offHeap, int threshold, Progress progress) {
+		int size = ids.length;
+		progress.phase(PHASE, size);
+		int bound = threshold < 0 || threshold >= loci() ? UNBOUNDED : threshold;
+		Distances distances = Distances.allocate(size, bound == UNBOUNDED ? loci() : bound + 1, offHeap);
+		List<Band> bands = new ArrayList<>();
+		for (int start = 0; start < size; start += TILE)
+			bands.add(bound == UNBOUNDED ? new Band(distances, start, Math.min(start + TILE, size), progress) : new BoundedBand(distances, start, Math.min(start + TILE, size), bound, progress));
+		if (Parallelism.threads(parallelism) == 1 || bands.size() == 1)
+			bands.forEach(Band::compute);
+		else
+			Parallelism.invoke(parallelism, new RecursiveAction() {
+				@Override
+				protected void compute() {
+					invokeAll(bands);
 				}
-				this.distances[i][j] = differences;
-			}
-		}
+			});
+		this.distances = distances;
+		this.threshold = bound;
+		return this;
+	}
+
+	/**
+	 * Creates a matrix with the same profiles, whose distances aren't computed yet
+	 *
+	 * @return matrix with the same profiles
+	 */
+	public Matrix copy() {
+		return copy(isolates);
+	}
+
+	/**
+	 * Creates a matrix with the same profiles and the given isolates counts, whose distances aren't computed yet
+	 *
+	 * @param isolates isolates counts of the profiles
+	 * @return matrix with the same profiles
+	 */
+	public Matrix copy(int[] isolates) {
+		return new Matrix(ids, isolates, alleles);
+	}
+
+	/**
+	 * Estimates the size of the profiles of the matrix, without its distances
+	 *
+	 * @return size in bytes
+	 */
+	public long bytes() {
+		long bytes = ARRAY * 2 + (long) ids.length * (REFERENCE + Integer.BYTES);
+		for (String id : ids)
+			bytes += STRING + (long) id.length() * Character.BYTES;
+		return bytes + (long) alleles.length * (REFERENCE + ARRAY + (long) ids.length * Integer.BYTES);
 	}
 
 	public String[] getIds() {
@@ -36,16 +157,146 @@ public class Matrix {
 		return isolates;
 	}
 
-	public int[][] getDistances() {
+	public int[][] getAlleles() {
+		return alleles;
+	}
+
+	public Distances getDistances() {
+		if (distances == null)
+			compute(1, false);
 		return distances;
 	}
 
+	public int getThreshold() {
+		return threshold;
+	}
+
 	public int size() {
-		return distances.length;
+		return ids.length;
+	}
+
+	public int loci() {
+		return alleles.length;
 	}
 
 	public int distance(int i, int j) {
-		return i == j ? 0 : distances[Math.max(i, j)][Math.min(i, j)];
+		return i == j ? 0 : getDistances().get(i > j ? Distances.index(i, j) : Distances.index(j, i));
+	}
+
+	/**
+	 * Task that computes the distances of a band of rows of the matrix
+	 */
+	private class Band extends RecursiveAction {
+
+		protected final Distances distances;
+		protected final int start;
+		protected final int end;
+		protected final Progress progress;
+
+		private Band(Distances distances, int start, int end, Progress progress) {
+			this.distances = distances;
+			this.start = start;
+			this.end = end;
+			this.progress = progress;
+		}
+
+		@Override
+		protected void compute() {
+			int[] counts = new int[TILE * TILE];
+			for (int tile = 0; tile < end; tile += TILE) {
+				progress.check();
+				int first = Math.max(start, tile + 1);
+				Arrays.fill(counts, 0);
+				count(counts, tile, first);
+				for (int i = first; i < end; i++) {
+					int row = (i - start) * TILE - tile;
+					long index = Distances.index(i, 0);
+					for (int j = tile; j < Math.min(tile + TILE, i); j++)
+						distances.set(index + j, counts[row + j]);
+				}
+			}
+			progress.advance(end - start);
+		}
+
+		protected void count(int[] counts, int tile, int first) {
+			for (int[] column : alleles) {
+				for (int i = first; i < end; i++) {
+					int allele = column[i];
+					int row = (i - start) * TILE - tile;
+					int limit = Math.min(tile + TILE, i);
+					if (allele == AlleleDictionary.MISSING) {
+						for (int j = tile; j < limit; j++)
+							counts[row + j]++;
+					} else {
+						for (int j = tile; j < limit; j++)
+							if (allele != column[j])
+								counts[row + j]++;
+					}
+				}
+			}
+		}
+
+	}
+
+	/**
+	 * Task that computes the distances of a band of rows of the matrix, up to a threshold
+	 * <p>
+	 * For each row of a tile it keeps the columns that are still within the threshold, which are compacted after each block
+	 * of {@link #LOCI} loci, so the pairs that are far apart stop being compared early.
+	 */
+	private class BoundedBand extends Band {
+
+		private final int threshold;
+
+		private BoundedBand(Distances distances, int start, int end, int threshold, Progress progress) {
+			super(distances, start, end, progress);
+			this.threshold = threshold;
+		}
+
+		@Override
+		protected void count(int[] counts, int tile, int first) {
+			int[] active = new int[TILE * TILE];
+			int[] sizes = new int[TILE];
+			int rows = 0;
+			for (int i = first; i < end; i++) {
+				int row = (i - start) * TILE;
+				int size = 0;
+				for (int j = tile; j < Math.min(tile + TILE, i); j++)
+					active[row + size++] = j;
+				sizes[i - start] = size;
+				rows += size > 0 ? 1 : 0;
+			}
+			for (int block = 0; block < alleles.length && rows > 0; block += LOCI) {
+				int last = Math.min(block + LOCI, alleles.length);
+				for (int l = block; l < last; l++) {
+					int[] column = alleles[l];
+					for (int i = first; i < end; i++) {
+						int row = (i - start) * TILE;
+						int allele = column[i];
+						for (int k = row; k < row + sizes[i - start]; k++) {
+							int j = active[k];
+							if (allele == AlleleDictionary.MISSING || allele != column[j])
+								counts[row - tile + j]++;
+						}
+					}
+				}
+				rows = 0;
+				for (int i = first; i < end; i++) {
+					int row = (i - start) * TILE;
+					int size = 0;
+					for (int k = row; k < row + sizes[i - start]; k++) {
+						int j = active[k];
+						if (counts[row - tile + j] > threshold)
+							counts[row - tile + j] = threshold + 1;
+						else
+							active[row + size++] = j;
+					}
+					sizes[i - start] = size;
+					rows += size > 0 ? 1 : 0;
+				}
+			}
+		}
+
 	}
 
 }
@@ -0,0 +1,173 @@
+package algorithm.inference.model;
+
+import algorithm.utils.Parallelism;
+import algorithm.utils.Progress;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A SNP matrix is a {@link Matrix matrix} of profiles whose alleles are single nucleotides, which are kept packed in words
+ * <p>
+ * The {@link #bases} of each profile are packed with 2 bits per site, so {@link #bases}{@code [i][s / 32]} holds the site {@code s}
+ * of the profile {@code i}. The sites that are not missing are marked in the {@link #present} mask, with 1 bit per site, so
+ * {@link #present}{@code [i][s / 64]} holds the site {@code s} of the profile {@code i}. A site differs when it is missing
+ * in either profile or when its bases differ, so the distance between two profiles is obtained with a XOR of their bases,
+ * and with a bit count of the sites that are equal and present in both profiles.
+ */
+public class SnpMatrix extends Matrix {
+
+	private static final String NUCLEOTIDES = "ACGT";
+	private static final long LOW = 0x5555555555555555L;
+	private static final int CHECK = 16;
+
+	private final int sites;
+	private final long[][] bases;
+	private final long[][] present;
+
+	public SnpMatrix(String[] ids, int[] isolates, int sites) {
+		this(ids, isolates, sites, new long[ids.length][((sites + 63) >>> 6) << 1], new long[ids.length][(sites + 63) >>> 6]);
+	}
+
+	private SnpMatrix(String[] ids, int[] isolates, int sites, long[][] bases, long[][] present) {
+		super(ids, isolates, (int[][]) null);
+		this.sites = sites;
+		this.bases = bases;
+		this.present = present;
+	}
+
+	/**
+	 * Sets the base of a site of a profile
+	 *
+	 * @param profile profile index
+	 * @param site    site index
+	 * @param base    upper case nucleotide
+	 * @return {@code false} if the base isn't an upper case nucleotide, in which case it isn't set
+	 */
+	public boolean set(int profile, int site, char base) {
+		int code = NUCLEOTIDES.indexOf(base);
+		if (code == -1)
+			return false;
+		bases[profile][site >>> 5] |= (long) code << ((site & 31) << 1);
+		present[profile][site >>> 6] |= 1L << (site & 63);
+		return true;
+	}
+
+	/**
+	 * Computes the lower triangular distances matrix with the packed bases, where each band of {@link #TILE} rows is computed
+	 * by a different task of a fork-join pool
+	 * <p>
+	 * When a threshold is given, the pairs whose distance is already above it stop being compared after each {@link #CHECK} words.
+	 *
+	 * @param parallelism number of threads used to compute the distances, or 0 to use all the available processors
+	 * @param offHeap     {@code true} if the distances should be stored outside of the heap
+	 * @param threshold   maximum distance that must be known exactly, or {@link #UNBOUNDED}
+	 * @param progress    progress of the execution
+	 * @return this matrix
+	 */
+	@Override
+	public Matrix compute(int parallelism, boolean offHeap, int threshold, Progress progress) {
+		int size = size();
+		progress.phase(PHASE, size);
+		int bound = threshold < 0 || threshold >= sites ? UNBOUNDED : threshold;
+		Distances distances = Distances.allocate(size, bound == UNBOUNDED ? sites : bound + 1, offHeap);
+		List<Band> bands = new ArrayList<>();
+		for (int start = 0; start < size; start += TILE)
+			bands.add(new Band(distances, start, Math.min(start + TILE, size), bound, progress));
+		if (Parallelism.threads(parallelism) == 1 || bands.size() == 1)
+			bands.forEach(Band::compute);
+		else
+			Parallelism.invoke(parallelism, new RecursiveAction() {
+				@Override
+				protected void compute() {
+					invokeAll(bands);
+				}
+			});
+		this.distances = distances;
+		this.threshold = bound;
+		return this;
+	}
+
+	@Override
+	public Matrix copy(int[] isolates) {
+		return new SnpMatrix(getIds(), isolates, sites, bases, present);
+	}
+
+	@Override
+	public long bytes() {
+		long bytes = ARRAY * 4 + (long) size() * (REFERENCE * 3 + Integer.BYTES + ARRAY * 2);
+		for (String id : getIds())
+			bytes += STRING + (long) id.length() * Character.BYTES;
+		return bytes + (long) size() * (bases.length == 0 ? 0 : bases[0].length + present[0].length) * Long.BYTES;
+	}
+
+	@Override
+	public int loci() {
+		return sites;
+	}
+
+	/**
+	 * Computes the distance between two profiles, or {@code bound + 1} if it is above the bound
+	 */
+	private int distance(int i, int j, int bound) {
+		long[] bi = bases[i], bj = bases[j], pi = present[i], pj = present[j];
+		int equal = 0;
+		for (int m = 0; m < pi.length; m++) {
+			long mask = pi[m] & pj[m];
+			long x = bi[m << 1] ^ bj[m << 1];
+			equal += Long.bitCount(~(x | x >>> 1) & spread(mask));
+			x = bi[(m << 1) + 1] ^ bj[(m << 1) + 1];
+			equal += Long.bitCount(~(x | x >>> 1) & spread(mask >>> 32));
+			if (bound != UNBOUNDED && (m + 1) % CHECK == 0 && Math.min((m + 1) << 6, sites) - equal > bound)
+				return bound + 1;
+		}
+		int distance = sites - equal;
+		return bound != UNBOUNDED && distance > bound ? bound + 1 : distance;
+	}
+
+	/**
+	 * Spreads the lower 32 bits of the value to the even bits, so each bit of the mask matches the lower bit of a packed base
+	 */
+	private static long spread(long value) {
+		value &= 0xFFFFFFFFL;
+		value = (value | value << 16) & 0x0000FFFF0000FFFFL;
+		value = (value | value << 8) & 0x00FF00FF00FF00FFL;
+		value = (value | value << 4) & 0x0F0F0F0F0F0F0F0FL;
+		value = (value | value << 2) & 0x3333333333333333L;
+		return (value | value << 1) & LOW;
+	}
+
+	/**
+	 * Task that computes the distances of a band of rows of the matrix
+	 */
+	private class Band extends RecursiveAction {
+
+		private final Distances distances;
+		private final int start;
+		private final int end;
+		private final int bound;
+		private final Progress progress;
+
+		private Band(Distances distances, int start, int end, int bound, Progress progress) {
+			this.distances = distances;
+			this.start = start;
+			this.end = end;
+			this.bound = bound;
+			this.progress = progress;
+		}
+
+		@Override
+		protected void compute() {
+			for (int i = start; i < end; i++) {
+				progress.check();
+				long index = Distances.index(i, 0);
+				for (int j = 0; j < i; j++)
+					distances.set(index + j, distance(i, j, bound));
+			}
+			progress.advance(end - start);
+		}
+
+	}
+
+}
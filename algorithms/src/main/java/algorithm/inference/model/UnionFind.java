@@ -0,0 +1,82 @@
+package algorithm.inference.model;
+
+/**
+ * A union-find is used to keep the disjoint sets of profiles that are connected by the edges of an {@link Inference inference}
+ * <p>
+ * A union-find is constituted by the {@link #parents} of each element, where a root is its own parent, and by the {@link #ranks}
+ * of the roots. It uses path compression and union by rank, so each operation takes near constant amortized time.
+ */
+public class UnionFind {
+
+	private final int[] parents;
+	private final byte[] ranks;
+
+	public UnionFind(int size) {
+		this.parents = new int[size];
+		this.ranks = new byte[size];
+		for (int i = 0; i < size; i++)
+			parents[i] = i;
+	}
+
+	public int size() {
+		return parents.length;
+	}
+
+	/**
+	 * Finds the representative of the set that contains the element
+	 *
+	 * @param element element index
+	 * @return representative of the set
+	 */
+	public int find(int element) {
+		int root = element;
+		while (parents[root] != root)
+			root = parents[root];
+		while (parents[element] != root) {
+			int parent = parents[element];
+			parents[element] = root;
+			element = parent;
+		}
+		return root;
+	}
+
+	/**
+	 * Labels the sets, which are numbered by the order of their lowest element
+	 *
+	 * @return label of the set of each element
+	 */
+	public int[] labels() {
+		int[] labels = new int[parents.length], roots = new int[parents.length];
+		int count = 0;
+		for (int i = 0; i < parents.length; i++) {
+			int root = find(i);
+			if (roots[root] == 0)
+				roots[root] = ++count;
+			labels[i] = roots[root] - 1;
+		}
+		return labels;
+	}
+
+	/**
+	 * Merges the sets that contain the given elements
+	 *
+	 * @param i element index
+	 * @param j element index
+	 * @return {@code true} if the elements were in different sets
+	 */
+	public boolean union(int i, int j) {
+		int x = find(i), y = find(j);
+		if (x == y)
+			return false;
+		if (ranks[x] < ranks[y]) {
+			int swap = x;
+			x = y;
+			y = swap;
+		}
+		parents[y] = x;
+		if (ranks[x] == ranks[y])
+			ranks[x]++;
+		return true;
+	}
+
+}
@@ -0,0 +1,124 @@
+package algorithm.utils;
+
+import java.util.Arrays;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Class which contains a stable merge sort of int values with a primitive comparator, which can be executed in parallel
+ * <p>
+ * It allows to sort indexes of primitive arrays without boxing them, nor allocating objects for each comparison.
+ */
+public class IntSort {
+
+	public static final int SEQUENTIAL = 1 << 13;
+	private static final int INSERTION = 32;
+
+	/**
+	 * Comparator of int values
+	 */
+	@FunctionalInterface
+	public interface Comparator {
+
+		int compare(int a, int b);
+
+	}
+
+	/**
+	 * Sorts the values with the given comparator
+	 *
+	 * @param values      values to sort
+	 * @param comparator  comparator of the values
+	 * @param parallelism degree of parallelism, or 0 to use all the available processors
+	 */
+	public static void sort(int[] values, Comparator comparator, int parallelism) {
+		int[] buffer = new int[values.length];
+		if (values.length <= SEQUENTIAL || Parallelism.threads(parallelism) == 1)
+			sort(values, buffer, 0, values.length, comparator);
+		else
+			Parallelism.invoke(parallelism, new Task(values, buffer, 0, values.length, comparator));
+	}
+
+	/**
+	 * Sorts a range of the values with the given comparator
+	 *
+	 * @param values      values to sort
+	 * @param from        index of the first value to sort, inclusive
+	 * @param to          index of the last value to sort, exclusive
+	 * @param comparator  comparator of the values
+	 * @param parallelism degree of parallelism, or 0 to use all the available processors
+	 */
+	public static void sort(int[] values, int from, int to, Comparator comparator, int parallelism) {
+		int[] range = Arrays.copyOfRange(values, from, to);
+		sort(range, comparator, parallelism);
+		System.arraycopy(range, 0, values, from, range.length);
+	}
+
+	private static void sort(int[] values, int[] buffer, int from, int to, Comparator comparator) {
+		if (to - from <= INSERTION) {
+			insertion(values, from, to, comparator);
+			return;
+		}
+		int middle = (from + to) >>> 1;
+		sort(values, buffer, from, middle, comparator);
+		sort(values, buffer, middle, to, comparator);
+		merge(values, buffer, from, middle, to, comparator);
+	}
+
+	private static void insertion(int[] values, int from, int to, Comparator comparator) {
+		for (int i = from + 1; i < to; i++) {
+			int value = values[i];
+			int j = i;
+			while (j > from && comparator.compare(values[j - 1], value) > 0) {
+				values[j] = values[j - 1];
+				j--;
+			}
+			values[j] = value;
+		}
+	}
+
+	private static void merge(int[] values, int[] buffer, int from, int middle, int to, Comparator comparator) {
+		if (comparator.compare(values[middle - 1], values[middle]) <= 0)
+			return;
+		System.arraycopy(values, from, buffer, from, to - from);
+		int i = from, j = middle, k = from;
+		while (i < middle && j < to)
+			values[k++] = comparator.compare(buffer[j], buffer[i]) < 0 ? buffer[j++] : buffer[i++];
+		while (i < middle)
+			values[k++] = buffer[i++];
+		while (j < to)
+			values[k++] = buffer[j++];
+	}
+
+	/**
+	 * Task that sorts a range of the values, splitting it while it is larger than {@link #SEQUENTIAL}
+	 */
+	private static class Task extends RecursiveAction {
+
+		private final int[] values;
+		private final int[] buffer;
+		private final int from;
+		private final int to;
+		private final Comparator comparator;
+
+		private Task(int[] values, int[] buffer, int from, int to, Comparator comparator) {
+			this.values = values;
+			this.buffer = buffer;
+			this.from = from;
+			this.to = to;
+			this.comparator = comparator;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= SEQUENTIAL) {
+				sort(values, buffer, from, to, comparator);
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			invokeAll(new Task(values, buffer, from, middle, comparator), new Task(values, buffer, middle, to, comparator));
+			merge(values, buffer, from, middle, to, comparator);
+		}
+
+	}
+
+}
@@ -0,0 +1,38 @@
+package algorithm.utils;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Class which contains the operations to execute the tasks of an algorithm with a given degree of parallelism
+ */
+public class Parallelism {
+
+	/**
+	 * Obtains the number of threads for a degree of parallelism
+	 *
+	 * @param parallelism degree of parallelism, or 0 to use all the available processors
+	 * @return number of threads
+	 */
+	public static int threads(int parallelism) {
+		return parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * Executes the task on a fork-join pool with the given degree of parallelism, which is shut down afterwards
+	 *
+	 * @param parallelism degree of parallelism, or 0 to use all the available processors
+	 * @param task        task to execute
+	 * @param <T>         task result
+	 * @return result of the task
+	 */
+	public static <T> T invoke(int parallelism, ForkJoinTask<T> task) {
+		ForkJoinPool pool = new ForkJoinPool(threads(parallelism));
+		try {
+			return pool.invoke(task);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+}
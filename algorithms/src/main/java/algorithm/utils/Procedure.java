@@ -3,6 +3,7 @@ package algorithm.utils;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.logging.Log;
 import org.neo4j.procedure.Context;
+import org.neo4j.procedure.TerminationGuard;
 
 /**
  * Class which contains the context to define procedures
@@ -13,4 +14,6 @@ public abstract class Procedure {
 	public GraphDatabaseService database;
 	@Context
 	public Log log;
+	@Context
+	public TerminationGuard guard;
 }
@@ -0,0 +1,145 @@
+package algorithm.utils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Class which keeps the progress of an algorithm execution, and which allows the algorithm to be cancelled
+ * <p>
+ * The algorithm reports each {@link #phase(String, long) phase} with the number of items it has to process, and {@link #advance(long) advances}
+ * it as the items are processed. Each advance polls the {@link #guard}, which throws an exception if the execution was terminated, so a
+ * cancelled execution stops at its next advance. The progress of the executions that produce an analysis is registered by project and
+ * analysis id while they run, so it can be {@link #running(String) queried}.
+ */
+public class Progress implements AutoCloseable {
+
+	public static final Progress NONE = new Progress(null, null, () -> {});
+
+	private static final Map<List<String>, Progress> RUNNING = new ConcurrentHashMap<>();
+
+	private final String project;
+	private final String analysis;
+	private final Runnable guard;
+	private final AtomicLong processed;
+	private final long start;
+	private volatile String phase;
+	private volatile long total;
+	private volatile long phaseStart;
+
+	private Progress(String project, String analysis, Runnable guard) {
+		this.project = project;
+		this.analysis = analysis;
+		this.guard = guard;
+		this.processed = new AtomicLong();
+		this.start = System.currentTimeMillis();
+		this.phaseStart = start;
+	}
+
+	/**
+	 * Starts the progress of an execution, which is registered while it isn't closed if it produces an analysis
+	 *
+	 * @param project  project id
+	 * @param analysis analysis id, or {@code null} if the execution doesn't produce an analysis
+	 * @param guard    guard that throws an exception if the execution was terminated
+	 * @return progress of the execution
+	 */
+	public static Progress start(String project, String analysis, Runnable guard) {
+		Progress progress = new Progress(project, analysis, guard);
+		if (analysis != null)
+			RUNNING.put(progress.key(), progress);
+		return progress;
+	}
+
+	/**
+	 * Retrieves the progress of the executions of a project that are running
+	 *
+	 * @param project project id
+	 * @return progress of the running executions
+	 */
+	public static Stream<Progress> running(String project) {
+		return RUNNING.values().stream().filter(p -> p.project.equals(project));
+	}
+
+	/**
+	 * Starts a new phase of the execution
+	 *
+	 * @param phase name of the phase
+	 * @param total number of items to process in the phase
+	 */
+	public void phase(String phase, long total) {
+		check();
+		this.phase = phase;
+		this.total = total;
+		this.processed.set(0);
+		this.phaseStart = System.currentTimeMillis();
+	}
+
+	/**
+	 * Advances the current phase, and verifies if the execution was terminated
+	 *
+	 * @param items number of items processed
+	 */
+	public void advance(long items) {
+		processed.addAndGet(items);
+		check();
+	}
+
+	/**
+	 * Verifies if the execution was terminated
+	 */
+	public void check() {
+		guard.run();
+	}
+
+	public String getAnalysis() {
+		return analysis;
+	}
+
+	public String getPhase() {
+		return phase;
+	}
+
+	public long getProcessed() {
+		return processed.get();
+	}
+
+	public long getTotal() {
+		return total;
+	}
+
+	/**
+	 * Retrieves the time since the execution started
+	 *
+	 * @return elapsed time in milliseconds
+	 */
+	public long elapsed() {
+		return System.currentTimeMillis() - start;
+	}
+
+	/**
+	 * Estimates the time left to finish the current phase, given the rate at which its items were processed
+	 *
+	 * @return remaining time in milliseconds, or -1 if there isn't an estimate yet
+	 */
+	public long remaining() {
+		long processed = this.processed.get();
+		if (processed == 0)
+			return -1;
+		return (System.currentTimeMillis() - phaseStart) * Math.max(total - processed, 0) / processed;
+	}
+
+	@Override
+	public void close() {
+		if (analysis != null)
+			RUNNING.remove(key(), this);
+	}
+
+	private List<String> key() {
+		return Arrays.asList(project, analysis);
+	}
+
+}
@@ -0,0 +1,24 @@
+package algorithm.utils;
+
+import org.neo4j.procedure.Mode;
+import org.neo4j.procedure.Name;
+
+import java.util.stream.Stream;
+
+/**
+ * ProgressProcedures contains the procedures to follow the executions of the algorithms
+ */
+public class ProgressProcedures extends Procedure {
+
+	/**
+	 * Retrieves the progress of the algorithms that are producing an analysis of a project
+	 *
+	 * @param project project id
+	 * @return analysis id, current phase, items processed and to process in the phase, and elapsed and estimated remaining milliseconds
+	 */
+	@org.neo4j.procedure.Procedure(value = "algorithms.progress", mode = Mode.READ)
+	public Stream<ProgressResult> progress(@Name("project") String project) {
+		return Progress.running(project).map(ProgressResult::new);
+	}
+
+}
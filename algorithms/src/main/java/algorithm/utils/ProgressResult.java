@@ -0,0 +1,24 @@
+package algorithm.utils;
+
+/**
+ * Record with the progress of a running execution, which is yielded by the {@link ProgressProcedures#progress(String) progress} procedure
+ */
+public class ProgressResult {
+
+	public final String analysis;
+	public final String phase;
+	public final long processed;
+	public final long total;
+	public final long elapsed;
+	public final long remaining;
+
+	public ProgressResult(Progress progress) {
+		this.analysis = progress.getAnalysis();
+		this.phase = progress.getPhase();
+		this.processed = progress.getProcessed();
+		this.total = progress.getTotal();
+		this.elapsed = progress.elapsed();
+		this.remaining = progress.remaining();
+	}
+
+}
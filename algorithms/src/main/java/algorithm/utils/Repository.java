@@ -15,6 +15,8 @@ import java.util.stream.StreamSupport;
  */
 public abstract class Repository<T, R> {
 
+	public static final String READ = "read", WRITE = "write";
+
 	protected GraphDatabaseService database;
 
 	public Repository(GraphDatabaseService database) {
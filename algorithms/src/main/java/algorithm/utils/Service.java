@@ -2,6 +2,7 @@ package algorithm.utils;
 
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.logging.Log;
+import org.neo4j.procedure.TerminationGuard;
 
 /**
  * Class which contains the common fields of a service
@@ -10,10 +11,27 @@ public abstract class Service {
 
 	public GraphDatabaseService database;
 	public Log log;
+	public TerminationGuard guard;
 
 	public Service(GraphDatabaseService database, Log log) {
+		this(database, log, null);
+	}
+
+	public Service(GraphDatabaseService database, Log log, TerminationGuard guard) {
 		this.database = database;
 		this.log = log;
+		this.guard = guard;
+	}
+
+	/**
+	 * Starts the progress of an execution, which is terminated along with the transaction of the procedure that called the service
+	 *
+	 * @param project  project id
+	 * @param analysis analysis id, or {@code null} if the execution doesn't produce an analysis
+	 * @return progress of the execution
+	 */
+	protected Progress progress(String project, String analysis) {
+		return Progress.start(project, analysis, guard == null ? () -> {} : guard::check);
 	}
 
 }
@@ -1,9 +0,0 @@
-package algorithm.utils.type;
-
-public class Coordinate {
-
-	public static final String LABEL = "Coordinate";
-	public static final String X = "x";
-	public static final String Y = "y";
-
-}
@@ -0,0 +1,11 @@
+package algorithm.utils.type;
+
+public class Coordinates {
+
+	public static final String LABEL = "Coordinates";
+	public static final String PROFILES = "profiles";
+	public static final String COMPONENTS = "components";
+	public static final String X = "x";
+	public static final String Y = "y";
+
+}
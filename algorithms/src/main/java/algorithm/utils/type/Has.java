@@ -6,6 +6,5 @@ public class Has {
 	public static final String ID = "id";
 	public static final String ALGORITHM = "algorithm";
 	public static final String DEPRECATED = "deprecated";
-	public static final String COMPONENT = "component";
 
 }
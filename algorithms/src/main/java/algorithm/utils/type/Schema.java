@@ -0,0 +1,9 @@
+package algorithm.utils.type;
+
+public class Schema {
+
+	public static final String LABEL = "Schema";
+	public static final String TYPE = "type";
+	public static final String SNP = "snp";
+
+}
@@ -0,0 +1,150 @@
+package algorithm.visualization;
+
+import algorithm.utils.IntSort;
+import algorithm.utils.type.Distance;
+import algorithm.utils.type.Profile;
+import algorithm.utils.type.Relation;
+import algorithm.visualization.model.Tree;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.internal.kernel.api.*;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.kernel.api.KernelTransaction;
+import org.neo4j.kernel.impl.coreapi.InternalTransaction;
+import org.neo4j.storageengine.api.RelationshipSelection;
+import org.neo4j.values.storable.NumberValue;
+import org.neo4j.values.storable.TextValue;
+import org.neo4j.values.storable.Value;
+
+import java.util.Arrays;
+
+/**
+ * Class that reads the edges of an inference into a {@link Tree tree} with the read cursors of the kernel
+ * <p>
+ * The profiles of the dataset are read once and indexed by their node ids, and the edges of the inference are read once into
+ * primitive arrays with the indexes of their profiles, so the tree is built by {@link Tree#of} in linear time.
+ */
+public class TreeReader implements AutoCloseable {
+
+	private final Read read;
+	private final int profile;
+	private final int contains, distances;
+	private final int id, distance;
+	private final NodeCursor node;
+	private final RelationshipTraversalCursor relationships;
+	private final PropertyCursor properties;
+
+	public TreeReader(Transaction tx) {
+		KernelTransaction ktx = ((InternalTransaction) tx).kernelTransaction();
+		TokenRead tokens = ktx.tokenRead();
+		CursorFactory cursors = ktx.cursors();
+		PageCursorTracer tracer = ktx.pageCursorTracer();
+		this.read = ktx.dataRead();
+		this.profile = tokens.nodeLabel(Profile.LABEL);
+		this.contains = tokens.relationshipType(Relation.CONTAINS.name());
+		this.distances = tokens.relationshipType(Relation.DISTANCES.name());
+		this.id = tokens.propertyKey(Distance.ID);
+		this.distance = tokens.propertyKey(Distance.DISTANCE);
+		this.node = cursors.allocateNodeCursor(tracer);
+		this.relationships = cursors.allocateRelationshipTraversalCursor(tracer);
+		this.properties = cursors.allocatePropertyCursor(tracer, ktx.memoryTracker());
+	}
+
+	/**
+	 * Reads the edges of an inference over the profiles of the dataset
+	 *
+	 * @param dataset   node id of the dataset
+	 * @param inference id of the inference
+	 * @return tree of the inference
+	 */
+	public Tree tree(long dataset, String inference) {
+		long[] nodes = profiles(dataset);
+		int size = nodes.length;
+		int[] order = new int[size];
+		for (int i = 0; i < size; i++)
+			order[i] = i;
+		IntSort.sort(order, (a, b) -> Long.compare(nodes[a], nodes[b]), 1);
+		long[] sorted = new long[size];
+		for (int i = 0; i < size; i++)
+			sorted[i] = nodes[order[i]];
+		String[] ids = new String[size];
+		int[] from = new int[16], to = new int[16];
+		long[] lengths = new long[16];
+		int edges = 0;
+		for (int i = 0; i < size; i++) {
+			read.singleNode(nodes[i], node);
+			node.next();
+			ids[i] = ((TextValue) nodeProperty(node, id)).stringValue();
+			node.relationships(relationships, RelationshipSelection.selection(distances, Direction.OUTGOING));
+			while (relationships.next()) {
+				relationships.properties(properties);
+				Value inferenceId = null, length = null;
+				while (properties.next()) {
+					if (properties.propertyKey() == id)
+						inferenceId = properties.propertyValue();
+					else if (properties.propertyKey() == distance)
+						length = properties.propertyValue();
+				}
+				if (!(inferenceId instanceof TextValue) || !((TextValue) inferenceId).stringValue().equals(inference))
+					continue;
+				int target = Arrays.binarySearch(sorted, relationships.otherNodeReference());
+				if (target < 0)
+					throw new RuntimeException("related " + ids[i] + " " + Relation.DISTANCES.name() + " " + relationships.otherNodeReference());
+				if (edges == from.length) {
+					from = Arrays.copyOf(from, edges * 2);
+					to = Arrays.copyOf(to, edges * 2);
+					lengths = Arrays.copyOf(lengths, edges * 2);
+				}
+				from[edges] = i;
+				to[edges] = order[target];
+				lengths[edges++] = number(length);
+			}
+		}
+		return Tree.of(ids, from, to, lengths, edges);
+	}
+
+	@Override
+	public void close() {
+		node.close();
+		relationships.close();
+		properties.close();
+	}
+
+	/**
+	 * Reads the node ids of the profiles of the dataset
+	 */
+	private long[] profiles(long dataset) {
+		long[] profiles = new long[16];
+		int size = 0;
+		read.singleNode(dataset, node);
+		if (node.next()) {
+			node.relationships(relationships, RelationshipSelection.selection(contains, Direction.OUTGOING));
+			while (relationships.next()) {
+				if (size == profiles.length)
+					profiles = Arrays.copyOf(profiles, size * 2);
+				profiles[size++] = relationships.otherNodeReference();
+			}
+		}
+		long[] result = new long[size];
+		int count = 0;
+		for (int i = 0; i < size; i++) {
+			read.singleNode(profiles[i], node);
+			if (node.next() && node.hasLabel(profile))
+				result[count++] = profiles[i];
+		}
+		return Arrays.copyOf(result, count);
+	}
+
+	private Value nodeProperty(NodeCursor cursor, int key) {
+		cursor.properties(properties);
+		while (properties.next())
+			if (properties.propertyKey() == key)
+				return properties.propertyValue();
+		return null;
+	}
+
+	private static long number(Value value) {
+		return value instanceof NumberValue ? ((NumberValue) value).longValue() : Long.parseLong(((TextValue) value).stringValue());
+	}
+
+}
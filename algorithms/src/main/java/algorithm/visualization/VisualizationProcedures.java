@@ -16,11 +16,32 @@ public class VisualizationProcedures extends algorithm.utils.Procedure {
 	 * @param dataset       dataset id
 	 * @param inference     inference id
 	 * @param visualization visualization id
+	 * @param parallelism   number of threads used to lay out the components, or 0 to use all the available processors
 	 */
 	@Procedure(value = "algorithms.visualization.radial", mode = Mode.WRITE)
-	public void goeBURST(@Name("project") String project, @Name("dataset") String dataset, @Name("inference") String inference, @Name("visualization") String visualization) {
-		VisualizationService service = new VisualizationService(database, log);
-		service.radial(project, dataset, inference, visualization);
+	public void goeBURST(@Name("project") String project, @Name("dataset") String dataset, @Name("inference") String inference, @Name("visualization") String visualization,
+						 @Name(value = "parallelism", defaultValue = "0") long parallelism) {
+		VisualizationService service = new VisualizationService(database, log, guard);
+		service.radial(project, dataset, inference, visualization, parallelism);
+	}
+
+	/**
+	 * Executes the force-directed algorithm, for a given inference of a dataset within a project. The result is stored using the visualization id
+	 *
+	 * @param project       project id
+	 * @param dataset       dataset id
+	 * @param inference     inference id
+	 * @param visualization visualization id
+	 * @param iterations    number of iterations of the layout
+	 * @param seed          seed of the initial positions of the vertices, so the same inference always results in the same layout
+	 * @param parallelism   number of threads used to accumulate the forces, or 0 to use all the available processors
+	 */
+	@Procedure(value = "algorithms.visualization.force", mode = Mode.WRITE)
+	public void force(@Name("project") String project, @Name("dataset") String dataset, @Name("inference") String inference, @Name("visualization") String visualization,
+					  @Name(value = "iterations", defaultValue = "300") long iterations, @Name(value = "seed", defaultValue = "0") long seed,
+					  @Name(value = "parallelism", defaultValue = "0") long parallelism) {
+		VisualizationService service = new VisualizationService(database, log, guard);
+		service.force(project, dataset, inference, visualization, iterations, seed, parallelism);
 	}
 
 }
@@ -2,16 +2,14 @@ package algorithm.visualization;
 
 import algorithm.utils.Repository;
 import algorithm.utils.type.*;
+import algorithm.visualization.model.Coordinate;
 import algorithm.visualization.model.Tree;
-import algorithm.visualization.model.Vertex;
 import algorithm.visualization.model.Visualization;
 import org.neo4j.graphdb.*;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.Collections;
+import java.util.Set;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * Class that contains the implementation of the {@link Repository} for visualizations
@@ -22,56 +20,55 @@ public class VisualizationRepository extends Repository<Visualization, Tree> {
 		super(database);
 	}
 
+	/**
+	 * Reads the tree of the inference with a {@link TreeReader}, which reads each edge once
+	 */
 	@Override
 	public Tree read(Transaction tx, String... params) {
 		String projectId = params[0], datasetId = params[1], inferenceId = params[2];
 		Node project = node(Project.LABEL, projectId, tx);
 		Node dataset = related(project, Relation.CONTAINS, Direction.OUTGOING, Dataset.LABEL, datasetId);
-		List<Relationship> distances = related(dataset, Relation.CONTAINS, Direction.OUTGOING, Profile.LABEL)
-				.flatMap(n -> relationships(n, Relation.DISTANCES, Direction.OUTGOING)
-						.filter(r -> r.getProperty(Distance.ID).equals(inferenceId)))
-				.collect(Collectors.toList());
-		Vertex[] roots = distances.stream()
-				.map(Relationship::getStartNode)
-				.filter(r -> distances.stream().noneMatch(r2 -> r2.getEndNode().equals(r)))
-				.distinct()
-				.map(n -> tree(n, 0, inferenceId))
-				.toArray(Vertex[]::new);
-		return new Tree(roots);
+		try (TreeReader reader = new TreeReader(tx)) {
+			return reader.tree(dataset.getId(), inferenceId);
+		}
 	}
 
+	/**
+	 * Writes the coordinates of the visualization into a single node of the dataset, as arrays of properties indexed by profile,
+	 * so the whole visualization is written and read back with a single property access for each array
+	 * <p>
+	 * The profiles of the dataset are indexed by id in a single pass, so each coordinate is verified to be of a profile of the dataset
+	 * without searching its profiles.
+	 */
 	@Override
 	public void write(Transaction tx, Visualization visualization) {
-		String inferenceId = visualization.getInferenceId();
-		String id = visualization.getId();
-		String algorithm = visualization.getAlgorithm();
-		algorithm.visualization.model.Coordinate[] coordinates = visualization.getCoordinates();
 		Node project = node(Project.LABEL, visualization.getProjectId(), tx);
 		Node dataset = related(project, Relation.CONTAINS, Direction.OUTGOING, Dataset.LABEL, visualization.getDatasetId());
-		for (algorithm.visualization.model.Coordinate coordinate : coordinates) {
-			Node profile = related(dataset, Relation.CONTAINS, Direction.OUTGOING, Profile.LABEL, coordinate.getProfileId());
-			Node c = tx.createNode(Label.label(Coordinate.LABEL));
-			c.setProperty(Coordinate.X, coordinate.getX());
-			c.setProperty(Coordinate.Y, coordinate.getY());
-			Map<String, Object> properties = new HashMap<>();
-			properties.put(Has.INFERENCE_ID, inferenceId);
-			properties.put(Has.ID, id);
-			properties.put(Has.COMPONENT, coordinate.getComponent());
-			properties.put(Has.ALGORITHM, algorithm);
-			properties.put(Has.DEPRECATED, false);
-			createRelationship(profile, c, Relation.HAS, properties);
+		Set<Object> ids = related(dataset, Relation.CONTAINS, Direction.OUTGOING, Profile.LABEL)
+				.map(n -> n.getProperty(Profile.ID))
+				.collect(Collectors.toSet());
+		Coordinate[] coordinates = visualization.getCoordinates();
+		String[] profiles = new String[coordinates.length];
+		long[] components = new long[coordinates.length];
+		double[] x = new double[coordinates.length], y = new double[coordinates.length];
+		for (int i = 0; i < coordinates.length; i++) {
+			if (!ids.contains(coordinates[i].getProfileId()))
+				throw new RuntimeException("related " + dataset.getProperty("id") + " " + Relation.CONTAINS.name() + " " + Profile.LABEL + " " + coordinates[i].getProfileId());
+			profiles[i] = coordinates[i].getProfileId();
+			components[i] = coordinates[i].getComponent();
+			x[i] = coordinates[i].getX();
+			y[i] = coordinates[i].getY();
 		}
-	}
-
-	private Vertex tree(Node current, long distance, String inferenceId) {
-		Vertex[] children = distances(current, Relation.DISTANCES, Direction.OUTGOING, inferenceId)
-				.map(r -> tree(r.getEndNode(), Long.parseLong(String.valueOf(r.getProperty(Distance.DISTANCE))), inferenceId))
-				.toArray(Vertex[]::new);
-		return new Vertex((String) current.getProperty(Profile.ID), distance, children);
-	}
-
-	private Stream<Relationship> distances(Node node, Relation relationship, Direction direction, String id) {
-		return relationships(node, relationship, direction).filter(r -> r.getProperty(Distance.ID).equals(id));
+		Node node = tx.createNode(Label.label(Coordinates.LABEL));
+		node.setProperty(Has.INFERENCE_ID, visualization.getInferenceId());
+		node.setProperty(Has.ID, visualization.getId());
+		node.setProperty(Has.ALGORITHM, visualization.getAlgorithm());
+		node.setProperty(Has.DEPRECATED, false);
+		node.setProperty(Coordinates.PROFILES, profiles);
+		node.setProperty(Coordinates.COMPONENTS, components);
+		node.setProperty(Coordinates.X, x);
+		node.setProperty(Coordinates.Y, y);
+		createRelationship(dataset, node, Relation.CONTAINS, Collections.emptyMap());
 	}
 
 }
@@ -1,12 +1,17 @@
 package algorithm.visualization;
 
+import algorithm.utils.Progress;
+import algorithm.utils.Repository;
 import algorithm.utils.Service;
+import algorithm.visualization.implementation.Force;
 import algorithm.visualization.implementation.Radial;
+import algorithm.visualization.implementation.VisualizationAlgorithm;
 import algorithm.visualization.model.Tree;
 import algorithm.visualization.model.Visualization;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Transaction;
 import org.neo4j.logging.Log;
+import org.neo4j.procedure.TerminationGuard;
 
 /**
  * Class that contains operations to execute visualization algorithms
@@ -19,27 +24,58 @@ public class VisualizationService extends Service {
 		super(database, log);
 	}
 
+	public VisualizationService(GraphDatabaseService database, Log log, TerminationGuard guard) {
+		super(database, log, guard);
+	}
+
 	/**
 	 * Executes the radial algorithm, with the data resulting from the inference identified in the parameters, and stores the result
 	 *
-	 * @param project   project id
-	 * @param dataset   dataset id
-	 * @param inference inference id
-	 * @param id        visualization id
+	 * @param project     project id
+	 * @param dataset     dataset id
+	 * @param inference   inference id
+	 * @param id          visualization id
+	 * @param parallelism number of threads used to lay out the components, or 0 to use all the available processors
 	 */
-	public void radial(String project, String dataset, String inference, String id) {
-		VisualizationRepository repository = new VisualizationRepository(database);
+	public void radial(String project, String dataset, String inference, String id, long parallelism) {
 		Radial algorithm = new Radial();
-		algorithm.init(project, dataset, inference, id);
-		Tree tree;
-		try (Transaction tx1 = database.beginTx()) {
-			tree = repository.read(tx1, project, dataset, inference);
-			tx1.commit();
-		}
-		Visualization visualization = algorithm.compute(tree);
-		try (Transaction tx2 = database.beginTx()) {
-			repository.write(tx2, visualization);
-			tx2.commit();
+		algorithm.init(project, dataset, inference, id, parallelism);
+		visualize(project, dataset, inference, id, algorithm);
+	}
+
+	/**
+	 * Executes the force-directed algorithm, with the data resulting from the inference identified in the parameters, and stores the result
+	 *
+	 * @param project     project id
+	 * @param dataset     dataset id
+	 * @param inference   inference id
+	 * @param id          visualization id
+	 * @param iterations  number of iterations of the layout
+	 * @param seed        seed of the initial positions of the vertices
+	 * @param parallelism number of threads used to accumulate the forces, or 0 to use all the available processors
+	 */
+	public void force(String project, String dataset, String inference, String id, long iterations, long seed, long parallelism) {
+		Force algorithm = new Force();
+		algorithm.init(project, dataset, inference, id, iterations, seed, parallelism);
+		visualize(project, dataset, inference, id, algorithm);
+	}
+
+	private void visualize(String project, String dataset, String inference, String id, VisualizationAlgorithm algorithm) {
+		VisualizationRepository repository = new VisualizationRepository(database);
+		try (Progress progress = progress(project, id)) {
+			algorithm.setProgress(progress);
+			Tree tree;
+			progress.phase(Repository.READ, 0);
+			try (Transaction tx1 = database.beginTx()) {
+				tree = repository.read(tx1, project, dataset, inference);
+				tx1.commit();
+			}
+			Visualization visualization = algorithm.compute(tree);
+			progress.phase(Repository.WRITE, 0);
+			try (Transaction tx2 = database.beginTx()) {
+				repository.write(tx2, visualization);
+				tx2.commit();
+			}
 		}
 	}
 
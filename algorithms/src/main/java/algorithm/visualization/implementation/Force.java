@@ -0,0 +1,394 @@
+package algorithm.visualization.implementation;
+
+import algorithm.utils.Parallelism;
+import algorithm.visualization.model.Coordinate;
+import algorithm.visualization.model.Tree;
+import algorithm.visualization.model.Vertex;
+import algorithm.visualization.model.Visualization;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Force is an VisualizationAlgorithm which implements a force-directed layout
+ * <p>
+ * The edges of the tree behave as springs whose rest length is proportional to their distance, and every pair of vertices repels each
+ * other. The repulsion is approximated with a Barnes-Hut quadtree, which is rebuilt at every iteration, where a cell whose size is small
+ * in comparison with its distance to a vertex is treated as a single body at its center of mass. The forces of the vertices are
+ * accumulated in parallel by the tasks of a fork-join pool, where each task only writes the forces of its own range of vertices, and the
+ * vertices are moved at most by a temperature which cools down during the {@link #iterations}. The vertices start next to their parents,
+ * in directions drawn from the {@link #seed}, so the same tree always results in the same layout, regardless of the parallelism.
+ */
+public class Force extends VisualizationAlgorithm {
+
+	public static final String NAME = "force";
+	public static final String PHASE = "layout";
+	private static final int DEFAULT_DISTANCE_MULTIPLIER = 100;
+	private static final int DEFAULT_ZERO_DISTANCE = 10;
+	private static final double THETA = 1.0;
+	private static final double REPULSION = 0.25;
+	private static final double GRAVITY = 0.01;
+	private static final int LEAF = 8;
+	private static final int DEPTH = 32;
+	private static final int BATCH = 1024;
+
+	private int iterations = 300;
+	private long seed;
+	private int parallelism = 1;
+
+	@Override
+	public void init(Object... params) {
+		this.projectId = (String) params[0];
+		this.datasetId = (String) params[1];
+		this.inferenceId = (String) params[2];
+		this.id = (String) params[3];
+		if (params.length > 4)
+			this.iterations = Math.toIntExact((long) params[4]);
+		if (params.length > 5)
+			this.seed = (long) params[5];
+		if (params.length > 6)
+			this.parallelism = Math.toIntExact((long) params[6]);
+	}
+
+	@Override
+	public Visualization compute(Tree tree) {
+		Layout layout = new Layout(tree);
+		progress.phase(PHASE, iterations);
+		if (Parallelism.threads(parallelism) == 1 || layout.forces.size() == 1)
+			layout.compute();
+		else {
+			layout.parallel = true;
+			Parallelism.invoke(parallelism, layout);
+		}
+		Coordinate[] coordinates = new Coordinate[layout.size];
+		for (int v = 0; v < layout.size; v++)
+			coordinates[v] = new Coordinate(layout.ids[v], layout.components[v], layout.x[v], layout.y[v]);
+		return new Visualization(projectId, datasetId, inferenceId, id, NAME, coordinates);
+	}
+
+	/**
+	 * Task that runs the iterations over the vertices of the tree, flattened in pre-order into arrays indexed by vertex
+	 */
+	private class Layout extends RecursiveAction {
+
+		private final int size;
+		private final String[] ids;
+		private final int[] components;
+		private final int[] parents;
+		private final double[] lengths;
+		private final double[] x, y, fx, fy;
+		private final double k;
+		private final Quadtree quadtree;
+		private final List<Accumulate> forces = new ArrayList<>();
+		private boolean parallel;
+
+		private Layout(Tree tree) {
+			Vertex[] roots = tree.getRoots();
+			int total = 0;
+			for (Vertex root : roots)
+				total += count(root);
+			this.size = total;
+			this.ids = new String[size];
+			this.components = new int[size];
+			this.parents = new int[size];
+			this.lengths = new double[size];
+			this.x = new double[size];
+			this.y = new double[size];
+			this.fx = new double[size];
+			this.fy = new double[size];
+			this.k = DEFAULT_DISTANCE_MULTIPLIER + DEFAULT_ZERO_DISTANCE;
+			this.quadtree = new Quadtree(size);
+			flatten(roots);
+			place(roots.length);
+			for (int start = 0; start < size; start += BATCH)
+				forces.add(new Accumulate(this, start, Math.min(start + BATCH, size)));
+		}
+
+		@Override
+		protected void compute() {
+			double temperature = Math.max(k * Math.sqrt(size) / 10, k);
+			for (int i = 0; i < iterations && size > 1; i++) {
+				quadtree.build(x, y);
+				if (!parallel)
+					forces.forEach(Accumulate::compute);
+				else {
+					forces.forEach(Accumulate::reinitialize);
+					invokeAll(forces);
+				}
+				attract();
+				move(temperature * (iterations - i) / iterations);
+				progress.advance(1);
+			}
+		}
+
+		private int count(Vertex root) {
+			int count = 0;
+			Vertex[] stack = new Vertex[16];
+			int top = 0;
+			stack[top++] = root;
+			while (top > 0) {
+				Vertex vertex = stack[--top];
+				count++;
+				Vertex[] children = vertex.getChildren();
+				if (top + children.length > stack.length)
+					stack = Arrays.copyOf(stack, Math.max(stack.length * 2, top + children.length));
+				for (Vertex child : children)
+					stack[top++] = child;
+			}
+			return count;
+		}
+
+		/**
+		 * Flattens the components in pre-order, with the index of the parent of each vertex in {@link #parents}
+		 */
+		private void flatten(Vertex[] roots) {
+			Vertex[] stack = new Vertex[16];
+			int[] stackParents = new int[16];
+			int position = 0;
+			for (int c = 0; c < roots.length; c++) {
+				int top = 0;
+				stack[top] = roots[c];
+				stackParents[top++] = -1;
+				while (top > 0) {
+					progress.check();
+					Vertex vertex = stack[--top];
+					ids[position] = vertex.getId();
+					components[position] = c + 1;
+					parents[position] = stackParents[top];
+					lengths[position] = vertex.getDistance() * DEFAULT_DISTANCE_MULTIPLIER + DEFAULT_ZERO_DISTANCE;
+					Vertex[] children = vertex.getChildren();
+					if (top + children.length > stack.length) {
+						stack = Arrays.copyOf(stack, Math.max(stack.length * 2, top + children.length));
+						stackParents = Arrays.copyOf(stackParents, stack.length);
+					}
+					for (int i = children.length - 1; i >= 0; i--) {
+						stack[top] = children[i];
+						stackParents[top++] = position;
+					}
+					position++;
+				}
+			}
+		}
+
+		/**
+		 * Places the roots in a square with room for every vertex, and every other vertex next to its parent, in a seeded direction
+		 */
+		private void place(int roots) {
+			SplittableRandom random = new SplittableRandom(seed);
+			double side = k * Math.sqrt(size);
+			for (int v = 0; v < size; v++) {
+				int parent = parents[v];
+				if (parent == -1) {
+					x[v] = roots == 1 ? 0 : (random.nextDouble() - 0.5) * side;
+					y[v] = roots == 1 ? 0 : (random.nextDouble() - 0.5) * side;
+					continue;
+				}
+				double alpha = random.nextDouble() * 2 * Math.PI;
+				x[v] = x[parent] + Math.cos(alpha) * lengths[v];
+				y[v] = y[parent] + Math.sin(alpha) * lengths[v];
+			}
+		}
+
+		/**
+		 * Adds the forces of the springs, which pull each vertex and its parent towards the rest length of their edge
+		 */
+		private void attract() {
+			for (int v = 0; v < size; v++) {
+				int parent = parents[v];
+				if (parent == -1)
+					continue;
+				double dx = x[v] - x[parent], dy = y[v] - y[parent];
+				double distance = Math.max(Math.sqrt(dx * dx + dy * dy), 0.01);
+				double force = (distance - lengths[v]) / lengths[v];
+				fx[v] -= dx * force;
+				fy[v] -= dy * force;
+				fx[parent] += dx * force;
+				fy[parent] += dy * force;
+			}
+		}
+
+		/**
+		 * Moves the vertices along their forces, by at most the temperature
+		 */
+		private void move(double temperature) {
+			for (int v = 0; v < size; v++) {
+				double force = Math.sqrt(fx[v] * fx[v] + fy[v] * fy[v]);
+				if (force > temperature) {
+					fx[v] *= temperature / force;
+					fy[v] *= temperature / force;
+				}
+				x[v] += fx[v];
+				y[v] += fy[v];
+			}
+		}
+
+	}
+
+	/**
+	 * Task that accumulates the repulsion and gravity of a range of vertices, which overwrites their previous forces
+	 * <p>
+	 * The range is taken from the order of the vertices in the quadtree, so consecutive vertices are close and traverse the same cells.
+	 */
+	private class Accumulate extends RecursiveAction {
+
+		private final Layout layout;
+		private final int start;
+		private final int end;
+		private final int[] stack = new int[3 * DEPTH + 4];
+		private final double[] force = new double[2];
+
+		private Accumulate(Layout layout, int start, int end) {
+			this.layout = layout;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		protected void compute() {
+			double[] x = layout.x, y = layout.y;
+			double k2 = REPULSION * layout.k * layout.k;
+			for (int i = start; i < end; i++) {
+				progress.check();
+				int v = layout.quadtree.points[i];
+				layout.quadtree.repulsion(v, x, y, k2, stack, force);
+				layout.fx[v] = force[0] - GRAVITY * x[v];
+				layout.fy[v] = force[1] - GRAVITY * y[v];
+			}
+		}
+
+	}
+
+	/**
+	 * Barnes-Hut quadtree, whose cells are kept in arrays, and whose leaves refer to ranges of {@link #points} with at most {@link #LEAF}
+	 * vertices, or more when the cells are {@link #DEPTH} levels deep, which only happens to vertices at the same position
+	 */
+	private static class Quadtree {
+
+		private final int[] points;
+		private final int[] buffer;
+		private int cells;
+		private int[] children = new int[64];
+		private int[] starts = new int[16], ends = new int[16];
+		private double[] masses = new double[16], cx = new double[16], cy = new double[16], sizes = new double[16];
+
+		private Quadtree(int size) {
+			this.points = new int[size];
+			this.buffer = new int[size];
+		}
+
+		private void build(double[] x, double[] y) {
+			int size = points.length;
+			double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE, maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+			for (int v = 0; v < size; v++) {
+				points[v] = v;
+				minX = Math.min(minX, x[v]);
+				minY = Math.min(minY, y[v]);
+				maxX = Math.max(maxX, x[v]);
+				maxY = Math.max(maxY, y[v]);
+			}
+			cells = 0;
+			double side = Math.max(Math.max(maxX - minX, maxY - minY), 1);
+			build(x, y, 0, size, minX, minY, side, 0);
+		}
+
+		private int build(double[] x, double[] y, int start, int end, double left, double bottom, double side, int depth) {
+			int cell = cells++;
+			if (cell == starts.length) {
+				int length = cell * 2;
+				children = Arrays.copyOf(children, length * 4);
+				starts = Arrays.copyOf(starts, length);
+				ends = Arrays.copyOf(ends, length);
+				masses = Arrays.copyOf(masses, length);
+				cx = Arrays.copyOf(cx, length);
+				cy = Arrays.copyOf(cy, length);
+				sizes = Arrays.copyOf(sizes, length);
+			}
+			double sumX = 0, sumY = 0;
+			for (int i = start; i < end; i++) {
+				sumX += x[points[i]];
+				sumY += y[points[i]];
+			}
+			starts[cell] = start;
+			ends[cell] = end;
+			masses[cell] = end - start;
+			cx[cell] = sumX / (end - start);
+			cy[cell] = sumY / (end - start);
+			sizes[cell] = side;
+			Arrays.fill(children, cell * 4, cell * 4 + 4, -1);
+			if (end - start <= LEAF || depth == DEPTH)
+				return cell;
+			double half = side / 2, midX = left + half, midY = bottom + half;
+			int[] bounds = new int[5];
+			for (int i = start; i < end; i++)
+				bounds[quadrant(x[points[i]], y[points[i]], midX, midY) + 1]++;
+			for (int q = 0; q < 4; q++)
+				bounds[q + 1] += bounds[q];
+			int[] positions = Arrays.copyOf(bounds, 4);
+			for (int i = start; i < end; i++)
+				buffer[start + positions[quadrant(x[points[i]], y[points[i]], midX, midY)]++] = points[i];
+			System.arraycopy(buffer, start, points, start, end - start);
+			for (int q = 0; q < 4; q++) {
+				if (bounds[q] == bounds[q + 1])
+					continue;
+				int child = build(x, y, start + bounds[q], start + bounds[q + 1], (q & 1) == 0 ? left : midX, (q & 2) == 0 ? bottom : midY, half, depth + 1);
+				children[cell * 4 + q] = child;
+			}
+			return cell;
+		}
+
+		private static int quadrant(double x, double y, double midX, double midY) {
+			return (x < midX ? 0 : 1) | (y < midY ? 0 : 2);
+		}
+
+		/**
+		 * Computes the repulsion of the other vertices over a vertex into the force, where each body of mass m at distance d pushes it by k2 * m / d
+		 */
+		private void repulsion(int v, double[] x, double[] y, double k2, int[] stack, double[] force) {
+			double forceX = 0, forceY = 0;
+			int top = 0;
+			stack[top++] = 0;
+			while (top > 0) {
+				int cell = stack[--top];
+				double dx = x[v] - cx[cell], dy = y[v] - cy[cell];
+				double distance2 = dx * dx + dy * dy;
+				if (sizes[cell] * sizes[cell] < THETA * THETA * distance2) {
+					double push = k2 * masses[cell] / distance2;
+					forceX += dx * push;
+					forceY += dy * push;
+					continue;
+				}
+				boolean leaf = true;
+				for (int q = 0; q < 4; q++) {
+					int child = children[cell * 4 + q];
+					if (child != -1) {
+						stack[top++] = child;
+						leaf = false;
+					}
+				}
+				if (!leaf)
+					continue;
+				for (int i = starts[cell]; i < ends[cell]; i++) {
+					int other = points[i];
+					if (other == v)
+						continue;
+					double ox = x[v] - x[other], oy = y[v] - y[other];
+					double d2 = ox * ox + oy * oy;
+					if (d2 == 0) {
+						ox = v < other ? -0.01 : 0.01;
+						d2 = ox * ox;
+					}
+					double push = k2 / d2;
+					forceX += ox * push;
+					forceY += oy * push;
+				}
+			}
+			force[0] = forceX;
+			force[1] = forceY;
+		}
+
+	}
+
+}
@@ -1,27 +1,35 @@
 package algorithm.visualization.implementation;
 
+import algorithm.utils.IntSort;
+import algorithm.utils.Parallelism;
 import algorithm.visualization.model.Coordinate;
 import algorithm.visualization.model.Tree;
 import algorithm.visualization.model.Vertex;
 import algorithm.visualization.model.Visualization;
 
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Stack;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Radial is an VisualizationAlgorithm which implements the radial algorithm
+ * <p>
+ * The tree is flattened in pre-order into arrays indexed by vertex, so the leaves of every subtree are counted in a single reverse pass,
+ * and the coordinates and right borders of the vertices are kept in primitive arrays while they are laid out. The components are laid out
+ * independently by the tasks of a fork-join pool, and are numbered by the order of their roots. Afterwards, the components are packed in
+ * rows by their bounding boxes, so they don't overlap, where the first component keeps its root at the origin.
  */
 public class Radial extends VisualizationAlgorithm {
 
 	public static final String NAME = "radial";
 	private static final int DEFAULT_DISTANCE_MULTIPLIER = 100;
 	private static final int DEFAULT_ZERO_DISTANCE = 10;
+	private static final int MARGIN = DEFAULT_DISTANCE_MULTIPLIER;
+	private static final int BATCH = 64;
+	public static final String PHASE = "layout";
 
-	private static int leafs(Vertex node) {
-		return node.getChildren().length == 0 ? 1 : Arrays.stream(node.getChildren()).reduce(0, (a, c) -> a + leafs(c), Integer::sum);
-	}
+	private int parallelism = 1;
 
 	@Override
 	public void init(Object... params) {
@@ -29,54 +37,199 @@ public class Radial extends VisualizationAlgorithm {
 		this.datasetId = (String) params[1];
 		this.inferenceId = (String) params[2];
 		this.id = (String) params[3];
+		if (params.length > 4)
+			this.parallelism = Math.toIntExact((long) params[4]);
 	}
 
 	@Override
 	public Visualization compute(Tree tree) {
 		Vertex[] roots = tree.getRoots();
-		Map<String, RadialCoordinate> coordinates = new HashMap<>();
-		for (int i = 0; i < roots.length; i++) {
-			Vertex root = roots[i];
-			Stack<Vertex> nodes = new Stack<>();
-			int leaftotal = leafs(root);
-			nodes.push(root);
-			coordinates.put(root.getId(), new RadialCoordinate(root.getId(), i + 1, 0, 0, 0));
-			while (nodes.size() > 0) {
-				Vertex parent = nodes.pop();
-				RadialCoordinate parentCoordinate = coordinates.get(parent.getId());
-				double border = parentCoordinate.getRightBorder();
-				for (Vertex child : parent.getChildren()) {
-					double wedge = 2 * Math.PI * leafs(child) / leaftotal;
-					double alpha = border + wedge / 2;
-					double distance = child.getDistance() * DEFAULT_DISTANCE_MULTIPLIER + DEFAULT_ZERO_DISTANCE;
-					nodes.push(child);
-					double x = parentCoordinate.getX() + Math.cos(alpha) * distance;
-					double y = parentCoordinate.getY() + Math.sin(alpha) * distance;
-					coordinates.put(child.getId(), new RadialCoordinate(child.getId(), i + 1, x, y, border));
-					border += wedge;
+		progress.phase(PHASE, roots.length);
+		Component[] components = new Component[roots.length];
+		List<Layout> layouts = new ArrayList<>();
+		for (int start = 0; start < roots.length; start += BATCH)
+			layouts.add(new Layout(roots, components, start, Math.min(start + BATCH, roots.length)));
+		if (Parallelism.threads(parallelism) == 1 || layouts.size() == 1)
+			layouts.forEach(Layout::compute);
+		else
+			Parallelism.invoke(parallelism, new RecursiveAction() {
+				@Override
+				protected void compute() {
+					invokeAll(layouts);
 				}
+			});
+		pack(components);
+		int size = 0;
+		for (Component component : components)
+			size += component.ids.length;
+		Coordinate[] coordinates = new Coordinate[size];
+		int position = 0;
+		for (int c = 0; c < components.length; c++) {
+			Component component = components[c];
+			for (int v = 0; v < component.ids.length; v++)
+				coordinates[position++] = new Coordinate(component.ids[v], c + 1, component.x[v] + component.dx, component.y[v] + component.dy);
+		}
+		return new Visualization(projectId, datasetId, inferenceId, id, NAME, coordinates);
+	}
+
+	/**
+	 * Packs the components in rows, from the tallest to the shortest, where the width of the rows is the side of a square with the area
+	 * of the components, or the width of the widest component
+	 */
+	private static void pack(Component[] components) {
+		if (components.length < 2)
+			return;
+		double area = 0, width = 0;
+		for (Component component : components) {
+			area += component.width() * component.height();
+			width = Math.max(width, component.width());
+		}
+		width = Math.max(width, Math.sqrt(area));
+		int[] order = new int[components.length];
+		for (int c = 0; c < order.length; c++)
+			order[c] = c;
+		IntSort.sort(order, (a, b) -> Double.compare(components[b].height(), components[a].height()), 1);
+		double x = 0, y = 0, row = 0;
+		for (int c : order) {
+			Component component = components[c];
+			if (x > 0 && x + component.width() > width) {
+				x = 0;
+				y += row;
+				row = 0;
+			}
+			component.dx = x - component.minX;
+			component.dy = y - component.minY;
+			x += component.width();
+			row = Math.max(row, component.height());
+		}
+		double dx = components[0].dx, dy = components[0].dy;
+		for (Component component : components) {
+			component.dx -= dx;
+			component.dy -= dy;
+		}
+	}
+
+	/**
+	 * Coordinates of the vertices of a component, relative to its root, with its bounding box and the offset given by the packing
+	 */
+	private static class Component {
+
+		private final String[] ids;
+		private final double[] x;
+		private final double[] y;
+		private double minX, maxX, minY, maxY;
+		private double dx, dy;
+
+		private Component(String[] ids, double[] x, double[] y) {
+			this.ids = ids;
+			this.x = x;
+			this.y = y;
+			for (int v = 0; v < ids.length; v++) {
+				minX = Math.min(minX, x[v]);
+				maxX = Math.max(maxX, x[v]);
+				minY = Math.min(minY, y[v]);
+				maxY = Math.max(maxY, y[v]);
 			}
 		}
-		return new Visualization(projectId, datasetId, inferenceId, id, NAME, coordinates.values()
-				.stream()
-				.map(r -> new Coordinate(r.getProfileId(), r.getComponent(), r.getX(), r.getY()))
-				.toArray(Coordinate[]::new));
+
+		private double width() {
+			return maxX - minX + MARGIN;
+		}
+
+		private double height() {
+			return maxY - minY + MARGIN;
+		}
+
 	}
 
 	/**
-	 * Helper class used to calculate coordinates during radial algorithm
+	 * Task that lays out the components of a range of roots, with arrays that are reused between its components
 	 */
-	public static class RadialCoordinate extends Coordinate {
+	private class Layout extends RecursiveAction {
+
+		private final Vertex[] roots;
+		private final Component[] components;
+		private final int start;
+		private final int end;
+		private Vertex[] vertices = new Vertex[16];
+		private int[] parents = new int[16];
+		private Vertex[] stack = new Vertex[16];
+		private int[] stackParents = new int[16];
+
+		private Layout(Vertex[] roots, Component[] components, int start, int end) {
+			this.roots = roots;
+			this.components = components;
+			this.start = start;
+			this.end = end;
+		}
 
-		private final double rightBorder;
+		@Override
+		protected void compute() {
+			for (int i = start; i < end; i++) {
+				components[i] = layout(flatten(roots[i]));
+				progress.advance(1);
+			}
+		}
 
-		public RadialCoordinate(String profileId, int component, double x, double y, double rigthBorder) {
-			super(profileId, component, x, y);
-			this.rightBorder = rigthBorder;
+		/**
+		 * Flattens a component in pre-order into {@link #vertices}, with the index of the parent of each vertex in {@link #parents}
+		 */
+		private int flatten(Vertex root) {
+			int size = 0, top = 0;
+			stack[top] = root;
+			stackParents[top++] = -1;
+			while (top > 0) {
+				progress.check();
+				Vertex vertex = stack[--top];
+				if (size == vertices.length) {
+					vertices = Arrays.copyOf(vertices, size * 2);
+					parents = Arrays.copyOf(parents, size * 2);
+				}
+				vertices[size] = vertex;
+				parents[size] = stackParents[top];
+				Vertex[] children = vertex.getChildren();
+				if (top + children.length > stack.length) {
+					stack = Arrays.copyOf(stack, Math.max(stack.length * 2, top + children.length));
+					stackParents = Arrays.copyOf(stackParents, stack.length);
+				}
+				for (int c = children.length - 1; c >= 0; c--) {
+					stack[top] = children[c];
+					stackParents[top++] = size;
+				}
+				size++;
+			}
+			return size;
 		}
 
-		public double getRightBorder() {
-			return rightBorder;
+		/**
+		 * Lays out a flattened component, where the wedge of each vertex is proportional to the leaves of its subtree
+		 */
+		private Component layout(int size) {
+			int[] leaves = new int[size];
+			for (int v = size - 1; v >= 0; v--) {
+				if (leaves[v] == 0)
+					leaves[v] = 1;
+				if (parents[v] != -1)
+					leaves[parents[v]] += leaves[v];
+			}
+			String[] ids = new String[size];
+			double[] x = new double[size], y = new double[size], borders = new double[size];
+			int total = leaves[0];
+			for (int v = 0; v < size; v++) {
+				int parent = parents[v];
+				ids[v] = vertices[v].getId();
+				if (parent == -1)
+					continue;
+				double wedge = 2 * Math.PI * leaves[v] / total;
+				double alpha = borders[parent] + wedge / 2;
+				double distance = vertices[v].getDistance() * DEFAULT_DISTANCE_MULTIPLIER + DEFAULT_ZERO_DISTANCE;
+				x[v] = x[parent] + Math.cos(alpha) * distance;
+				y[v] = y[parent] + Math.sin(alpha) * distance;
+				borders[v] = borders[parent];
+				borders[parent] += wedge;
+			}
+			Arrays.fill(vertices, 0, size, null);
+			return new Component(ids, x, y);
 		}
 
 	}
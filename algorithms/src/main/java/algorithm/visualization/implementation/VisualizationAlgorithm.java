@@ -1,6 +1,7 @@
 package algorithm.visualization.implementation;
 
 import algorithm.utils.Algorithm;
+import algorithm.utils.Progress;
 import algorithm.visualization.model.Tree;
 import algorithm.visualization.model.Visualization;
 
@@ -14,4 +15,15 @@ public abstract class VisualizationAlgorithm implements Algorithm<Tree, Visualiz
 	protected String inferenceId;
 	protected String id;
 
+	protected Progress progress = Progress.NONE;
+
+	/**
+	 * Defines the progress where the algorithm reports its phases, and which is polled to verify if the execution was terminated
+	 *
+	 * @param progress progress of the execution
+	 */
+	public void setProgress(Progress progress) {
+		this.progress = progress;
+	}
+
 }
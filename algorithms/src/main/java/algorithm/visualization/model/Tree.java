@@ -14,6 +14,71 @@ public class Tree {
 		this.roots = roots;
 	}
 
+	/**
+	 * Builds the tree of the directed edges between the profiles, whose roots are the origins of edges that aren't the destination of any edge
+	 * <p>
+	 * The children of each profile are kept in an adjacency list over primitive arrays, and the vertices are built from the leaves to the
+	 * roots in the reverse of a breadth-first order, so it takes linear time and doesn't recurse. The roots and the children of each vertex
+	 * are ordered by their edges.
+	 *
+	 * @param ids       ids of the profiles
+	 * @param from      origin profile index of each edge
+	 * @param to        destination profile index of each edge
+	 * @param distances distance of each edge
+	 * @param edges     number of edges
+	 * @return tree of the edges
+	 */
+	public static Tree of(String[] ids, int[] from, int[] to, long[] distances, int edges) {
+		int size = ids.length;
+		int[] incoming = new int[size], starts = new int[size + 1];
+		for (int e = 0; e < edges; e++) {
+			incoming[to[e]]++;
+			starts[from[e] + 1]++;
+		}
+		for (int v = 0; v < size; v++)
+			starts[v + 1] += starts[v];
+		int[] children = new int[edges], positions = Arrays.copyOf(starts, size);
+		for (int e = 0; e < edges; e++)
+			children[positions[from[e]]++] = e;
+		int[] queue = new int[size], edge = new int[size];
+		boolean[] visited = new boolean[size];
+		Arrays.fill(edge, -1);
+		int roots = 0, tail = 0;
+		for (int e = 0; e < edges; e++) {
+			int root = from[e];
+			if (visited[root] || incoming[root] > 0)
+				continue;
+			visited[root] = true;
+			queue[tail++] = root;
+			roots++;
+		}
+		for (int head = 0; head < tail; head++) {
+			int v = queue[head];
+			for (int k = starts[v]; k < starts[v + 1]; k++) {
+				int w = to[children[k]];
+				if (visited[w])
+					continue;
+				visited[w] = true;
+				edge[w] = children[k];
+				queue[tail++] = w;
+			}
+		}
+		Vertex[] vertices = new Vertex[size];
+		for (int i = tail - 1; i >= 0; i--) {
+			int v = queue[i], count = 0;
+			Vertex[] adjacent = new Vertex[starts[v + 1] - starts[v]];
+			for (int k = starts[v]; k < starts[v + 1]; k++)
+				if (edge[to[children[k]]] == children[k])
+					adjacent[count++] = vertices[to[children[k]]];
+			long distance = i < roots ? 0 : distances[edge[v]];
+			vertices[v] = new Vertex(ids[v], distance, count == adjacent.length ? adjacent : Arrays.copyOf(adjacent, count));
+		}
+		Vertex[] result = new Vertex[roots];
+		for (int i = 0; i < roots; i++)
+			result[i] = vertices[queue[i]];
+		return new Tree(result);
+	}
+
 	public Vertex[] getRoots() {
 		return roots;
 	}
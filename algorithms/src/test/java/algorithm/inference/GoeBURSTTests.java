@@ -10,8 +10,11 @@ import org.junit.Test;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
 
 import static junit.framework.TestCase.assertTrue;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 public class GoeBURSTTests {
@@ -71,6 +74,75 @@ public class GoeBURSTTests {
 		assertEdges(expected, ids, inference);
 	}
 
+	@Test
+	public void compute_parallel() {
+		Random random = new Random(1);
+		String[] ids = new String[300];
+		int[] isolates = new int[ids.length];
+		String[][] allelesIds = new String[ids.length][5];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = String.valueOf(i + 1);
+			isolates[i] = random.nextInt(3);
+			for (int l = 0; l < allelesIds[i].length; l++)
+				allelesIds[i][l] = String.valueOf(random.nextInt(2));
+		}
+		Inference expected = goeburst.compute(new Matrix(ids, isolates, allelesIds));
+		GoeBURST parallel = new GoeBURST();
+		parallel.init(PROJECT_ID, DATASET_ID, INFERENCE_ID, 3L, 4L, false);
+		Inference inference = parallel.compute(new Matrix(ids, isolates, allelesIds));
+		assertEquals(expected.getEdges(), inference.getEdges());
+	}
+
+	@Test
+	public void compute_partitionIndex() {
+		Random random = new Random(1);
+		String[] ids = new String[500];
+		int[] isolates = new int[ids.length];
+		String[][] allelesIds = new String[ids.length][20];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = String.valueOf(i + 1);
+			String[] parent = i < 5 ? null : allelesIds[random.nextInt(i)];
+			for (int l = 0; l < allelesIds[i].length; l++)
+				allelesIds[i][l] = parent == null || random.nextInt(10) == 0 ? String.valueOf(random.nextInt(100)) : parent[l];
+		}
+		GoeBURST exhaustive = new GoeBURST();
+		exhaustive.init(PROJECT_ID, DATASET_ID, INFERENCE_ID, 3L, 1L, false, true);
+		Inference expected = exhaustive.compute(new Matrix(ids, isolates, allelesIds));
+		GoeBURST index = new GoeBURST();
+		index.init(PROJECT_ID, DATASET_ID, INFERENCE_ID, 3L, 1L, false, false);
+		Inference inference = index.compute(new Matrix(ids, isolates, allelesIds));
+		assertEquals(expected.getEdges(), inference.getEdges());
+	}
+
+	@Test
+	public void stream_sameEdges() {
+		Random random = new Random(2);
+		String[] ids = new String[300];
+		int[] isolates = new int[ids.length];
+		String[][] allelesIds = new String[ids.length][5];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = String.valueOf(i + 1);
+			for (int l = 0; l < allelesIds[i].length; l++)
+				allelesIds[i][l] = String.valueOf(random.nextInt(3));
+		}
+		Inference expected = goeburst.compute(new Matrix(ids, isolates, allelesIds));
+		List<Edge> edges = goeburst.stream(new Matrix(ids, isolates, allelesIds)).collect(Collectors.toList());
+		assertEquals(expected.getEdges().size(), edges.size());
+		assertTrue(edges.containsAll(expected.getEdges()));
+	}
+
+	@Test
+	public void complexes_matrix4x3() {
+		String[] ids = {PROFILE1_ID, PROFILE2_ID, PROFILE3_ID, "4"};
+		int[] isolates = new int[ids.length];
+		String[][] allelesIds = {{"1", "1", "1"}, {"1", "1", "2"}, {"1", "2", "2"}, {"3", "3", "3"}};
+		int[][] complexes = goeburst.complexes(new Matrix(ids, isolates, allelesIds));
+		assertEquals(3, complexes.length);
+		assertArrayEquals(new int[]{0, 0, 0, 1}, complexes[0]);
+		assertArrayEquals(new int[]{0, 0, 0, 1}, complexes[1]);
+		assertArrayEquals(new int[]{0, 0, 0, 0}, complexes[2]);
+	}
+
 	private void assertEdges(List<Edge> expected, String[] ids, Inference inference) {
 		assertEquals(PROJECT_ID, inference.getProjectId());
 		assertEquals(DATASET_ID, inference.getDatasetId());
@@ -0,0 +1,68 @@
+package algorithm.inference;
+
+import algorithm.inference.model.Matrix;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MatrixCacheTests {
+
+	private static final String PROJECT_ID = "project", DATASET1_ID = "dataset1", DATASET2_ID = "dataset2";
+
+	private Matrix matrix() {
+		String[] ids = {"1", "2"};
+		return new Matrix(ids, new int[ids.length], new String[][]{{"1", "2"}, {"2", "1"}});
+	}
+
+	@Test
+	public void get_sameVersions() {
+		MatrixCache cache = new MatrixCache(Long.MAX_VALUE);
+		Matrix matrix = matrix();
+		cache.put(PROJECT_ID, DATASET1_ID, new long[]{1, 1}, matrix);
+		Matrix cached = cache.get(PROJECT_ID, DATASET1_ID, new String[]{"1", "2"}, new long[]{1, 1}, new int[2]);
+		assertNotNull(cached);
+		assertNotSame(matrix, cached);
+		assertSame(matrix.getAlleles(), cached.getAlleles());
+		assertArrayEquals(matrix.getIsolates(), cached.getIsolates());
+	}
+
+	@Test
+	public void get_newIsolates() {
+		MatrixCache cache = new MatrixCache(Long.MAX_VALUE);
+		Matrix matrix = matrix();
+		cache.put(PROJECT_ID, DATASET1_ID, new long[]{1, 1}, matrix);
+		int[] isolates = {2, 0};
+		Matrix cached = cache.get(PROJECT_ID, DATASET1_ID, new String[]{"1", "2"}, new long[]{1, 1}, isolates);
+		assertNotNull(cached);
+		assertSame(matrix.getAlleles(), cached.getAlleles());
+		assertArrayEquals(isolates, cached.getIsolates());
+	}
+
+	@Test
+	public void get_newVersion() {
+		MatrixCache cache = new MatrixCache(Long.MAX_VALUE);
+		cache.put(PROJECT_ID, DATASET1_ID, new long[]{1, 1}, matrix());
+		assertNull(cache.get(PROJECT_ID, DATASET1_ID, new String[]{"1", "2"}, new long[]{1, 2}, new int[2]));
+		assertNull(cache.get(PROJECT_ID, DATASET1_ID, new String[]{"1", "2"}, new long[]{1, 1}, new int[2]));
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void put_evictsLeastRecentlyUsed() {
+		MatrixCache probe = new MatrixCache(Long.MAX_VALUE);
+		probe.put(PROJECT_ID, DATASET1_ID, new long[]{1, 1}, matrix());
+		MatrixCache cache = new MatrixCache(probe.size() * 2);
+		String[] ids = {"1", "2"};
+		long[] versions = {1, 1};
+		int[] isolates = new int[ids.length];
+		cache.put(PROJECT_ID, DATASET1_ID, versions, matrix());
+		cache.put(PROJECT_ID, DATASET2_ID, versions, matrix());
+		cache.get(PROJECT_ID, DATASET1_ID, ids, versions, isolates);
+		cache.put("other", DATASET1_ID, versions, matrix());
+		assertNotNull(cache.get(PROJECT_ID, DATASET1_ID, ids, versions, isolates));
+		assertNull(cache.get(PROJECT_ID, DATASET2_ID, ids, versions, isolates));
+		assertNotNull(cache.get("other", DATASET1_ID, ids, versions, isolates));
+		assertEquals(probe.size() * 2, cache.size());
+	}
+
+}
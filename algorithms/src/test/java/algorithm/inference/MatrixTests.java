@@ -0,0 +1,80 @@
+package algorithm.inference;
+
+import algorithm.inference.model.Matrix;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class MatrixTests {
+
+	private static Matrix matrix(int size, int loci, long seed) {
+		Random random = new Random(seed);
+		String[] ids = new String[size];
+		String[][] allelesIds = new String[size][loci];
+		for (int i = 0; i < size; i++) {
+			ids[i] = String.valueOf(i + 1);
+			for (int l = 0; l < loci; l++)
+				allelesIds[i][l] = random.nextInt(10) == 0 ? null : String.valueOf(random.nextInt(3));
+		}
+		return new Matrix(ids, new int[size], allelesIds);
+	}
+
+	@Test
+	public void compute_missingAlleles() {
+		String[] ids = {"1", "2", "3"};
+		String[][] allelesIds = {{"1", null}, {"1", null}, {null, "2"}};
+		Matrix matrix = new Matrix(ids, new int[ids.length], allelesIds).compute(1, false);
+		assertEquals(1, matrix.distance(0, 1));
+		assertEquals(2, matrix.distance(0, 2));
+		assertEquals(2, matrix.distance(2, 1));
+		assertEquals(0, matrix.distance(2, 2));
+	}
+
+	@Test
+	public void compute_parallel() {
+		int size = Matrix.TILE * 3 + 7;
+		Matrix expected = matrix(size, 20, 1).compute(1, false);
+		Matrix result = matrix(size, 20, 1).compute(4, false);
+		assertDistances(expected, result);
+	}
+
+	@Test
+	public void compute_offHeap() {
+		int size = Matrix.TILE + 7;
+		Matrix expected = matrix(size, 20, 1).compute(1, false);
+		Matrix result = matrix(size, 20, 1).compute(2, true);
+		assertEquals(Byte.BYTES, result.getDistances().width());
+		assertDistances(expected, result);
+	}
+
+	@Test
+	public void compute_shortCells() {
+		Matrix matrix = matrix(10, 300, 1).compute(1, false);
+		assertEquals(Short.BYTES, matrix.getDistances().width());
+		Matrix offHeap = matrix(10, 300, 1).compute(1, true);
+		assertEquals(Short.BYTES, offHeap.getDistances().width());
+		assertDistances(matrix, offHeap);
+	}
+
+	@Test
+	public void compute_bounded() {
+		int size = Matrix.TILE + 7, threshold = 5;
+		Matrix expected = matrix(size, 40, 1).compute(1, false);
+		Matrix result = matrix(size, 40, 1).compute(2, false, threshold);
+		assertEquals(threshold, result.getThreshold());
+		assertEquals(Byte.BYTES, result.getDistances().width());
+		for (int i = 0; i < size; i++)
+			for (int j = 0; j < size; j++)
+				assertEquals(Math.min(expected.distance(i, j), threshold + 1), result.distance(i, j));
+	}
+
+	private void assertDistances(Matrix expected, Matrix result) {
+		assertEquals(expected.size(), result.size());
+		for (int i = 0; i < expected.size(); i++)
+			for (int j = 0; j < expected.size(); j++)
+				assertEquals(expected.distance(i, j), result.distance(i, j));
+	}
+
+}
@@ -0,0 +1,92 @@
+package algorithm.inference;
+
+import algorithm.inference.model.Matrix;
+import algorithm.inference.model.SnpMatrix;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class SnpMatrixTests {
+
+	private static final String BASES = "ACGT";
+
+	private static String[][] sequences(int size, int sites, long seed) {
+		Random random = new Random(seed);
+		String[][] allelesIds = new String[size][sites];
+		for (int i = 0; i < size; i++) {
+			String[] parent = i == 0 ? null : allelesIds[random.nextInt(i)];
+			for (int s = 0; s < sites; s++)
+				allelesIds[i][s] = random.nextInt(50) == 0 ? null : parent == null || random.nextInt(100) == 0 ? String.valueOf(BASES.charAt(random.nextInt(4))) : parent[s];
+		}
+		return allelesIds;
+	}
+
+	private static SnpMatrix snp(String[] ids, String[][] allelesIds) {
+		SnpMatrix matrix = new SnpMatrix(ids, new int[ids.length], allelesIds.length == 0 ? 0 : allelesIds[0].length);
+		for (int i = 0; i < allelesIds.length; i++)
+			for (int s = 0; s < allelesIds[i].length; s++)
+				if (allelesIds[i][s] != null)
+					matrix.set(i, s, allelesIds[i][s].charAt(0));
+		return matrix;
+	}
+
+	private static String[] ids(int size) {
+		String[] ids = new String[size];
+		for (int i = 0; i < size; i++)
+			ids[i] = String.valueOf(i + 1);
+		return ids;
+	}
+
+	@Test
+	public void compute_missingSites() {
+		String[] ids = {"1", "2", "3"};
+		String[][] allelesIds = {{"A", null, "C"}, {"A", null, "C"}, {null, "T", "G"}};
+		Matrix matrix = snp(ids, allelesIds).compute(1, false);
+		assertEquals(3, matrix.loci());
+		assertEquals(1, matrix.distance(0, 1));
+		assertEquals(3, matrix.distance(0, 2));
+		assertEquals(3, matrix.distance(2, 1));
+		assertEquals(0, matrix.distance(2, 2));
+	}
+
+	@Test
+	public void compute_matrix() {
+		int size = Matrix.TILE + 7, sites = 1500;
+		String[] ids = ids(size);
+		String[][] allelesIds = sequences(size, sites, 1);
+		Matrix expected = new Matrix(ids, new int[size], allelesIds).compute(1, false);
+		Matrix result = snp(ids, allelesIds).compute(2, false);
+		for (int i = 0; i < size; i++)
+			for (int j = 0; j < size; j++)
+				assertEquals(expected.distance(i, j), result.distance(i, j));
+	}
+
+	@Test
+	public void compute_bounded() {
+		int size = Matrix.TILE + 7, sites = 1500, threshold = 30;
+		String[] ids = ids(size);
+		String[][] allelesIds = sequences(size, sites, 2);
+		Matrix expected = new Matrix(ids, new int[size], allelesIds).compute(1, false);
+		Matrix result = snp(ids, allelesIds).compute(2, false, threshold);
+		assertEquals(threshold, result.getThreshold());
+		for (int i = 0; i < size; i++)
+			for (int j = 0; j < size; j++)
+				assertEquals(Math.min(expected.distance(i, j), threshold + 1), result.distance(i, j));
+	}
+
+	@Test
+	public void set_notNucleotide() {
+		SnpMatrix matrix = new SnpMatrix(ids(1), new int[1], 1);
+		assertFalse(matrix.set(0, 0, 'N'));
+	}
+
+	@Test
+	public void set_lowerCase() {
+		SnpMatrix matrix = new SnpMatrix(ids(1), new int[1], 1);
+		assertFalse(matrix.set(0, 0, 'a'));
+	}
+
+}
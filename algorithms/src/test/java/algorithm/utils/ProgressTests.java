@@ -0,0 +1,72 @@
+package algorithm.utils;
+
+import algorithm.inference.implementation.GoeBURST;
+import algorithm.inference.model.Matrix;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class ProgressTests {
+
+	private static final String PROJECT_ID = "project", DATASET_ID = "dataset", ANALYSIS_ID = "analysis";
+
+	private Matrix matrix() {
+		String[] ids = {"1", "2", "3", "4"};
+		return new Matrix(ids, new int[ids.length], new String[][]{{"1", "1", "1"}, {"1", "1", "2"}, {"1", "2", "2"}, {"2", "2", "2"}});
+	}
+
+	@Test
+	public void start_registersWhileRunning() {
+		Progress progress = Progress.start(PROJECT_ID, ANALYSIS_ID, () -> {});
+		assertEquals(1, Progress.running(PROJECT_ID).filter(p -> p == progress).count());
+		progress.phase("phase", 4);
+		progress.advance(1);
+		assertEquals("phase", progress.getPhase());
+		assertEquals(1, progress.getProcessed());
+		assertEquals(4, progress.getTotal());
+		progress.close();
+		assertEquals(0, Progress.running(PROJECT_ID).filter(p -> p == progress).count());
+	}
+
+	@Test
+	public void start_withoutAnalysis() {
+		try (Progress progress = Progress.start(PROJECT_ID, null, () -> {})) {
+			assertTrue(Progress.running(PROJECT_ID).noneMatch(p -> p == progress));
+			assertEquals(-1, progress.remaining());
+		}
+	}
+
+	@Test
+	public void compute_reportsPhases() {
+		GoeBURST algorithm = new GoeBURST();
+		algorithm.init(PROJECT_ID, DATASET_ID, ANALYSIS_ID, 3L, 1L, false, true);
+		try (Progress progress = Progress.start(PROJECT_ID, ANALYSIS_ID, () -> {})) {
+			algorithm.setProgress(progress);
+			algorithm.compute(matrix());
+			assertEquals(GoeBURST.SPAN, progress.getPhase());
+			assertEquals(progress.getTotal(), progress.getProcessed());
+		}
+	}
+
+	@Test
+	public void compute_cancelled() {
+		AtomicBoolean terminated = new AtomicBoolean();
+		GoeBURST algorithm = new GoeBURST();
+		algorithm.init(PROJECT_ID, DATASET_ID, ANALYSIS_ID, 3L, 1L, false, true);
+		try (Progress progress = Progress.start(PROJECT_ID, ANALYSIS_ID, () -> {
+			if (terminated.get())
+				throw new IllegalStateException("terminated");
+		})) {
+			algorithm.setProgress(progress);
+			terminated.set(true);
+			algorithm.compute(matrix());
+			fail();
+		} catch (IllegalStateException e) {
+			assertEquals("terminated", e.getMessage());
+		}
+		assertEquals(0, Progress.running(PROJECT_ID).count());
+	}
+
+}
@@ -0,0 +1,95 @@
+package algorithm.visualization;
+
+import algorithm.visualization.implementation.Force;
+import algorithm.visualization.model.Coordinate;
+import algorithm.visualization.model.Tree;
+import algorithm.visualization.model.Vertex;
+import algorithm.visualization.model.Visualization;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static junit.framework.TestCase.assertTrue;
+import static org.junit.Assert.*;
+
+public class ForceTests {
+
+	private static final String PROJECT_ID = "project", DATASET_ID = "dataset", INFERENCE_ID = "inference",
+			VISUALIZATION_ID = "visualization", PROFILE1_ID = "1", PROFILE2_ID = "2", PROFILE3_ID = "3",
+			PROFILE4_ID = "4", PROFILE5_ID = "5";
+
+	private Force force;
+
+	private static Vertex vertex(String id, int distance, Vertex... children) {
+		return new Vertex(id, distance, children);
+	}
+
+	private static Tree tree(int size, int trees) {
+		Vertex[] vertices = new Vertex[size];
+		for (int i = size - 1; i >= 0; i--) {
+			int first = 2 * i + 1, second = 2 * i + 2;
+			Vertex[] children = first >= size ? new Vertex[0] : second >= size ? new Vertex[]{vertices[first]} : new Vertex[]{vertices[first], vertices[second]};
+			vertices[i] = vertex(String.valueOf(i), i % 3, children);
+		}
+		Vertex[] roots = new Vertex[trees];
+		for (int i = 0; i < trees; i++)
+			roots[i] = i == 0 ? vertices[0] : vertex("r" + i, 0, vertex("r" + i + "-1", 1));
+		return new Tree(roots);
+	}
+
+	private Coordinate[] compute(Tree tree, long iterations, long seed, long parallelism) {
+		force.init(PROJECT_ID, DATASET_ID, INFERENCE_ID, VISUALIZATION_ID, iterations, seed, parallelism);
+		return force.compute(tree).getCoordinates();
+	}
+
+	@Before
+	public void init() {
+		force = new Force();
+		force.init(PROJECT_ID, DATASET_ID, INFERENCE_ID, VISUALIZATION_ID);
+	}
+
+	@Test
+	public void compute_1Vertex() {
+		Visualization visualization = force.compute(new Tree(new Vertex[]{vertex(PROFILE1_ID, 0)}));
+		assertEquals(Force.NAME, visualization.getAlgorithm());
+		assertArrayEquals(new Coordinate[]{new Coordinate(PROFILE1_ID, 1, 0, 0)}, visualization.getCoordinates());
+	}
+
+	@Test
+	public void compute_nEdgesNTree() {
+		Vertex root1 = vertex(PROFILE1_ID, 0, vertex(PROFILE2_ID, 1, vertex(PROFILE3_ID, 2)));
+		Vertex root2 = vertex(PROFILE4_ID, 0, vertex(PROFILE5_ID, 1));
+		Coordinate[] coordinates = force.compute(new Tree(new Vertex[]{root1, root2})).getCoordinates();
+		String[] ids = Arrays.stream(coordinates).map(Coordinate::getProfileId).toArray(String[]::new);
+		int[] components = Arrays.stream(coordinates).mapToInt(Coordinate::getComponent).toArray();
+		assertArrayEquals(new String[]{PROFILE1_ID, PROFILE2_ID, PROFILE3_ID, PROFILE4_ID, PROFILE5_ID}, ids);
+		assertArrayEquals(new int[]{1, 1, 1, 2, 2}, components);
+		assertLength(coordinates[0], coordinates[1], 110);
+		assertLength(coordinates[1], coordinates[2], 210);
+		assertLength(coordinates[3], coordinates[4], 110);
+	}
+
+	@Test
+	public void compute_deterministic() {
+		Tree tree = tree(5000, 20);
+		Coordinate[] sequential = compute(tree, 20, 7, 1);
+		assertArrayEquals(sequential, compute(tree, 20, 7, 1));
+		assertArrayEquals(sequential, compute(tree, 20, 7, 4));
+		assertFalse(Arrays.equals(sequential, compute(tree, 20, 8, 1)));
+	}
+
+	@Test
+	public void compute_samePosition() {
+		Vertex root = vertex(PROFILE1_ID, 0, vertex(PROFILE2_ID, 0), vertex(PROFILE3_ID, 0), vertex(PROFILE4_ID, 0));
+		Coordinate[] coordinates = compute(new Tree(new Vertex[]{root}), 50, 0, 1);
+		for (Coordinate coordinate : coordinates)
+			assertTrue(Double.isFinite(coordinate.getX()) && Double.isFinite(coordinate.getY()));
+	}
+
+	private static void assertLength(Coordinate from, Coordinate to, double length) {
+		double distance = Math.hypot(from.getX() - to.getX(), from.getY() - to.getY());
+		assertTrue(distance > length / 2 && distance < length * 3);
+	}
+
+}
@@ -69,6 +69,49 @@ public class RadialTests {
 		assertVisualization(coordinates, visualization);
 	}
 
+	@Test
+	public void compute_deepTree() {
+		int size = 100000;
+		Vertex vertex = vertex(String.valueOf(size - 1), 1);
+		for (int i = size - 2; i >= 0; i--)
+			vertex = vertex(String.valueOf(i), i == 0 ? 0 : 1, vertex);
+		Visualization visualization = radial.compute(new Tree(new Vertex[]{vertex}));
+		Coordinate[] coordinates = visualization.getCoordinates();
+		assertEquals(size, coordinates.length);
+		assertEquals(String.valueOf(size - 1), coordinates[size - 1].getProfileId());
+		assertEquals(-110.0 * (size - 1), coordinates[size - 1].getX(), 1e-6);
+	}
+
+	@Test
+	public void compute_nTrees() {
+		int trees = 300;
+		Vertex[] roots = new Vertex[trees];
+		for (int i = 0; i < trees; i++) {
+			Vertex[] children = new Vertex[i % 4];
+			for (int c = 0; c < children.length; c++)
+				children[c] = vertex(i + "-" + (c + 1), c + 1);
+			roots[i] = vertex(String.valueOf(i), 0, children);
+		}
+		Tree tree = new Tree(roots);
+		Coordinate[] sequential = radial.compute(tree).getCoordinates();
+		radial.init(PROJECT_ID, DATASET_ID, INFERENCE_ID, VISUALIZATION_ID, 4L);
+		Coordinate[] parallel = radial.compute(tree).getCoordinates();
+		assertArrayEquals(sequential, parallel);
+		assertEquals(new Coordinate("0", 1, 0, 0), sequential[0]);
+		double[][] boxes = new double[trees][];
+		for (Coordinate coordinate : sequential) {
+			int c = coordinate.getComponent() - 1;
+			assertEquals(String.valueOf(c), coordinate.getProfileId().split("-")[0]);
+			if (boxes[c] == null)
+				boxes[c] = new double[]{coordinate.getX(), coordinate.getX(), coordinate.getY(), coordinate.getY()};
+			boxes[c] = new double[]{Math.min(boxes[c][0], coordinate.getX()), Math.max(boxes[c][1], coordinate.getX()),
+					Math.min(boxes[c][2], coordinate.getY()), Math.max(boxes[c][3], coordinate.getY())};
+		}
+		for (int a = 0; a < trees; a++)
+			for (int b = a + 1; b < trees; b++)
+				assertTrue(boxes[a][1] < boxes[b][0] || boxes[b][1] < boxes[a][0] || boxes[a][3] < boxes[b][2] || boxes[b][3] < boxes[a][2]);
+	}
+
 	private void assertVisualization(Coordinate[] coordinates, Visualization visualization) {
 		assertEquals(PROJECT_ID, visualization.getProjectId());
 		assertEquals(DATASET_ID, visualization.getDatasetId());
@@ -0,0 +1,73 @@
+package algorithm.visualization;
+
+import algorithm.visualization.model.Tree;
+import algorithm.visualization.model.Vertex;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class TreeTests {
+
+	private static Vertex vertex(String id, int distance, Vertex... children) {
+		return new Vertex(id, distance, children);
+	}
+
+	@Test
+	public void of_noEdges() {
+		Tree result = Tree.of(new String[]{"1", "2"}, new int[0], new int[0], new long[0], 0);
+		assertEquals(new Tree(new Vertex[0]), result);
+	}
+
+	@Test
+	public void of_1Edge() {
+		Tree result = Tree.of(new String[]{"1", "2"}, new int[]{0}, new int[]{1}, new long[]{2}, 1);
+		assertEquals(new Tree(new Vertex[]{vertex("1", 0, vertex("2", 2))}), result);
+	}
+
+	@Test
+	public void of_nEdges1Root() {
+		String[] ids = {"1", "2", "3", "4", "5"};
+		int[] from = {1, 0, 0, 1}, to = {3, 1, 2, 4};
+		long[] distances = {3, 1, 2, 4};
+		Tree result = Tree.of(ids, from, to, distances, from.length);
+		Vertex expected = vertex("1", 0, vertex("2", 1, vertex("4", 3), vertex("5", 4)), vertex("3", 2));
+		assertEquals(new Tree(new Vertex[]{expected}), result);
+	}
+
+	@Test
+	public void of_nEdgesNRoots() {
+		String[] ids = {"1", "2", "3", "4", "5", "6"};
+		int[] from = {4, 0, 3, 4}, to = {5, 1, 2, 3};
+		long[] distances = {1, 2, 3, 4};
+		Tree result = Tree.of(ids, from, to, distances, from.length);
+		Vertex first = vertex("5", 0, vertex("6", 1), vertex("4", 4, vertex("3", 3)));
+		Vertex second = vertex("1", 0, vertex("2", 2));
+		assertEquals(new Tree(new Vertex[]{first, second}), result);
+	}
+
+	@Test
+	public void of_deepChain() {
+		int size = 200000;
+		String[] ids = new String[size];
+		int[] from = new int[size - 1], to = new int[size - 1];
+		long[] distances = new long[size - 1];
+		for (int i = 0; i < size; i++)
+			ids[i] = String.valueOf(i);
+		for (int i = 0; i < size - 1; i++) {
+			from[i] = size - 1 - i;
+			to[i] = size - 2 - i;
+			distances[i] = 1;
+		}
+		Tree result = Tree.of(ids, from, to, distances, size - 1);
+		assertEquals(1, result.getRoots().length);
+		Vertex vertex = result.getRoots()[0];
+		int depth = 1;
+		while (vertex.getChildren().length > 0) {
+			vertex = vertex.getChildren()[0];
+			depth++;
+		}
+		assertEquals(size, depth);
+		assertEquals("0", vertex.getId());
+	}
+
+}
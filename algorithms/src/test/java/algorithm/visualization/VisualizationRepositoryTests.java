@@ -2,8 +2,9 @@ package algorithm.visualization;
 
 import algorithm.inference.InferenceProcedures;
 import algorithm.repository.RepositoryTests;
+import algorithm.utils.type.Coordinates;
+import algorithm.utils.type.Dataset;
 import algorithm.utils.type.Has;
-import algorithm.utils.type.Profile;
 import algorithm.utils.type.Relation;
 import algorithm.visualization.implementation.Radial;
 import algorithm.visualization.model.Coordinate;
@@ -14,16 +15,17 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.neo4j.driver.Config;
-import org.neo4j.graphdb.Relationship;
-import org.neo4j.graphdb.RelationshipType;
-import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.*;
 import org.neo4j.harness.junit.rule.Neo4jRule;
 
 import java.io.IOException;
 import java.net.URI;
-import java.util.Arrays;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import static org.junit.Assert.*;
@@ -70,6 +72,18 @@ public class VisualizationRepositoryTests extends RepositoryTests {
 		}
 	}
 
+	@Test
+	public void read_inference1EdgeWithOtherInference() throws IOException {
+		try (Transaction tx = database.beginTx()) {
+			arrange(tx, "visualization", "ctx-1e-oi.cypher");
+			Tree result = repository.read(tx, PROJECT_ID, DATASET_ID, INFERENCE_ID);
+			Vertex child = vertex(PROFILE2_ID, 2);
+			Vertex expected = vertex(PROFILE1_ID, 0, child);
+			assertEquals(new Tree(new Vertex[]{expected}), result);
+			tx.rollback();
+		}
+	}
+
 	@Test
 	public void read_inferenceNEdge1Root() throws IOException {
 		try (Transaction tx = database.beginTx()) {
@@ -123,8 +137,8 @@ public class VisualizationRepositoryTests extends RepositoryTests {
 			Coordinate c2 = new Coordinate(PROFILE2_ID, 1, 3, 2.5);
 			Visualization visualization = visualization(c1, c2);
 			repository.write(tx, visualization);
-			assertEquals(relationshipsCount + 2, getRelationshipsCount(tx));
-			assertEquals(nodesCount + 2, getNodesCount(tx));
+			assertEquals(relationshipsCount + 1, getRelationshipsCount(tx));
+			assertEquals(nodesCount + 1, getNodesCount(tx));
 			assertVisualization(tx, visualization);
 			tx.rollback();
 		}
@@ -142,32 +156,83 @@ public class VisualizationRepositoryTests extends RepositoryTests {
 			Coordinate c4 = new Coordinate(PROFILE4_ID, 1, 0, 0);
 			Visualization visualization = visualization(c1, c2, c3, c4);
 			repository.write(tx, visualization);
-			assertEquals(relationshipsCount + 4, getRelationshipsCount(tx));
-			assertEquals(nodesCount + 4, getNodesCount(tx));
+			assertEquals(relationshipsCount + 1, getRelationshipsCount(tx));
+			assertEquals(nodesCount + 1, getNodesCount(tx));
 			assertVisualization(tx, visualization);
 			tx.rollback();
 		}
 	}
 
+	@Test(expected = RuntimeException.class)
+	public void write_unknownProfile() throws IOException {
+		try (Transaction tx = database.beginTx()) {
+			arrange(tx, "visualization", "ctx-1e.cypher");
+			repository.write(tx, visualization(new Coordinate(PROFILE1_ID, 1, 0, 0), new Coordinate(PROFILE3_ID, 1, 1, 0)));
+		}
+	}
+
+	@Test
+	public void migrate_compactsCoordinates() throws IOException {
+		try (Transaction tx = database.beginTx()) {
+			arrange(tx, "visualization", "ctx-1e-c.cypher");
+			String[] statements = migration();
+			List<Map<String, Object>> groups = tx.execute(statements[0]).stream().collect(Collectors.toList());
+			assertEquals(2, groups.size());
+			for (Map<String, Object> group : groups)
+				tx.execute("WITH $d as d, $inferenceId as inferenceId, $id as id\n" + statements[1], group);
+			assertEquals(0, tx.findNodes(Label.label("Coordinate")).stream().count());
+			Map<Object, Node> nodes = tx.findNodes(Label.label(Coordinates.LABEL)).stream()
+					.collect(Collectors.toMap(n -> n.getProperty(Has.ID), n -> n));
+			assertEquals(2, nodes.size());
+			Node visualization = nodes.get(VISUALIZATION_ID), other = nodes.get("other");
+			assertEquals(false, visualization.getProperty(Has.DEPRECATED));
+			assertEquals(true, other.getProperty(Has.DEPRECATED));
+			String[] profiles = (String[]) visualization.getProperty(Coordinates.PROFILES);
+			long[] components = (long[]) visualization.getProperty(Coordinates.COMPONENTS);
+			double[] x = (double[]) visualization.getProperty(Coordinates.X), y = (double[]) visualization.getProperty(Coordinates.Y);
+			assertEquals(2, profiles.length);
+			for (int i = 0; i < profiles.length; i++) {
+				assertEquals(1, components[i]);
+				assertEquals(Double.parseDouble(profiles[i]), x[i], 0);
+				assertEquals(0.5, y[i], 0);
+			}
+			assertArrayEquals(new String[]{PROFILE1_ID}, (String[]) other.getProperty(Coordinates.PROFILES));
+			tx.rollback();
+		}
+	}
+
+	/**
+	 * Reads the statement that iterates the visualizations and the statement that compacts each of them from the migration script
+	 */
+	private static String[] migration() throws IOException {
+		String script = String.join("\n", Files.readAllLines(Paths.get("..", "scripts", "migrate", "compact_visualizations.cypher")));
+		Matcher matcher = Pattern.compile("\"([^\"]*)\"").matcher(script);
+		String[] statements = new String[2];
+		for (int i = 0; i < statements.length && matcher.find(); i++)
+			statements[i] = matcher.group(1);
+		return statements;
+	}
+
 	private void assertVisualization(Transaction tx, Visualization visualization) {
-		List<Relationship> coordinates = tx.getAllRelationships().stream()
-				.filter(r -> r.getType().equals(RelationshipType.withName(Relation.HAS.name())))
-				.collect(Collectors.toList());
-		assertEquals(visualization.getCoordinates().length, coordinates.size());
-		for (int i = 0; i < coordinates.size(); i++) {
-			Relationship r = coordinates.get(i);
-			String profileId = r.getStartNode().getProperty(Profile.ID).toString();
-			Optional<Coordinate> coordinate = Arrays.stream(visualization.getCoordinates()).filter(c -> c.getProfileId().equals(profileId))
-					.findFirst();
-			assertTrue(coordinate.isPresent());
-			Coordinate c = coordinate.get();
-			assertEquals(r.getEndNode().getProperty(algorithm.utils.type.Coordinate.X), c.getX());
-			assertEquals(r.getEndNode().getProperty(algorithm.utils.type.Coordinate.Y), c.getY());
-			assertEquals(r.getProperty(Has.INFERENCE_ID), visualization.getInferenceId());
-			assertEquals(r.getProperty(Has.ID), visualization.getId());
-			assertEquals(r.getProperty(Has.COMPONENT), c.getComponent());
-			assertEquals(r.getProperty(Has.ALGORITHM), visualization.getAlgorithm());
-			assertEquals(r.getProperty(Has.DEPRECATED), false);
+		List<Node> nodes = tx.findNodes(Label.label(Coordinates.LABEL)).stream().collect(Collectors.toList());
+		assertEquals(1, nodes.size());
+		Node node = nodes.get(0);
+		Relationship r = node.getSingleRelationship(RelationshipType.withName(Relation.CONTAINS.name()), Direction.INCOMING);
+		assertEquals(DATASET_ID, r.getStartNode().getProperty(Dataset.ID));
+		assertEquals(visualization.getInferenceId(), node.getProperty(Has.INFERENCE_ID));
+		assertEquals(visualization.getId(), node.getProperty(Has.ID));
+		assertEquals(visualization.getAlgorithm(), node.getProperty(Has.ALGORITHM));
+		assertEquals(false, node.getProperty(Has.DEPRECATED));
+		Coordinate[] coordinates = visualization.getCoordinates();
+		String[] profiles = (String[]) node.getProperty(Coordinates.PROFILES);
+		long[] components = (long[]) node.getProperty(Coordinates.COMPONENTS);
+		double[] x = (double[]) node.getProperty(Coordinates.X), y = (double[]) node.getProperty(Coordinates.Y);
+		assertEquals(coordinates.length, profiles.length);
+		for (int i = 0; i < coordinates.length; i++) {
+			assertEquals(coordinates[i].getProfileId(), profiles[i]);
+			assertEquals(coordinates[i].getComponent(), components[i]);
+			assertEquals(coordinates[i].getX(), x[i], 0);
+			assertEquals(coordinates[i].getY(), y[i], 0);
 		}
 	}
 }
@@ -0,0 +1,11 @@
+CREATE (p:Project {id: "project"}) WITH p
+CREATE (p)-[:CONTAINS]->(d:Dataset {id: "dataset"}) WITH d
+CREATE (d)-[:CONTAINS_DETAILS {version: 1}]->(:DatasetDetails)-[:HAS]->(:Schema {type: "snp"}) WITH d
+CREATE (d)-[:CONTAINS]->(p:Profile {id: "1", deprecated: false}) WITH d, p
+CREATE (p)-[:CONTAINS_DETAILS {version: 1, to: 2}]->(pd:ProfileDetails)-[:HAS {part: 1, total: 2, version: 1}]->(:Allele {id: "T"}) WITH d, p, pd
+CREATE (pd)-[:HAS {part: 2, total: 2, version: 1}]->(:Allele {id: "T"}) WITH d, p
+CREATE (p)-[:CONTAINS_DETAILS {version: 2}]->(pd:ProfileDetails)-[:HAS {part: 1, total: 2, version: 1}]->(:Allele {id: "A"}) WITH d, pd
+CREATE (pd)-[:HAS {part: 2, total: 2, version: 1}]->(:Allele {id: "C"}) WITH d
+CREATE (d)-[:CONTAINS]->(p:Profile {id: "2", deprecated: false}) WITH d, p
+CREATE (p)-[:CONTAINS_DETAILS {version: 1}]->(pd:ProfileDetails)-[:HAS {part: 1, total: 2, version: 1}]->(:Allele {id: "A"}) WITH d, pd
+CREATE (pd)-[:HAS {part: 2, total: 2, version: 1}]->(:Allele {id: "G"})
@@ -0,0 +1,8 @@
+CREATE (p:Project {id: "project"}) WITH p
+CREATE (p)-[:CONTAINS]->(d:Dataset {id: "dataset"}) WITH d
+CREATE (d)-[:CONTAINS]->(p1:Profile {id: "1"}) WITH d, p1
+CREATE (d)-[:CONTAINS]->(p2:Profile {id: "2"}) WITH d, p1, p2
+CREATE (p1)-[:DISTANCES {id: "inference", distance: 2}]->(p2) WITH p1, p2
+CREATE (p1)-[:HAS {inferenceId: "inference", id: "visualization", algorithm: "radial", component: 1, deprecated: false}]->(:Coordinate {x: 1, y: 0.5}) WITH p1, p2
+CREATE (p2)-[:HAS {inferenceId: "inference", id: "visualization", algorithm: "radial", component: 1, deprecated: false}]->(:Coordinate {x: 2, y: 0.5}) WITH p1
+CREATE (p1)-[:HAS {inferenceId: "inference", id: "other", algorithm: "radial", component: 1, deprecated: true}]->(:Coordinate {x: 1, y: 0.5})
@@ -25,5 +25,6 @@ sleep 120
 
 docker exec -ti phylodb-db-1 bash -c "cypher-shell -u neo4j -p password < /scripts/init/init_schema.cypher"
 docker exec -ti phylodb-db-1 bash -c "cypher-shell -u neo4j -p password < /scripts/init/init_data.cypher"
+docker exec -ti phylodb-db-1 bash -c "cypher-shell -u neo4j -p password < /scripts/migrate/compact_visualizations.cypher"
 
 cd ..
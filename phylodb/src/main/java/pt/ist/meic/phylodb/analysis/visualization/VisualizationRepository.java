@@ -12,11 +12,16 @@ import pt.ist.meic.phylodb.utils.db.UnversionedRepository;
 import pt.ist.meic.phylodb.utils.service.Entity;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 
 /**
  * Class that contains the implementation of the {@link UnversionedRepository} for visualizations
+ * <p>
+ * Each visualization is kept in a single Coordinates node of the dataset, whose profiles, components, x, and y array properties
+ * hold the coordinates of the profiles at the same index. The visualizations kept as a Coordinate node by profile are only read after
+ * they are migrated by the {@code scripts/migrate/compact_visualizations.cypher} script.
  */
 @Repository
 public class VisualizationRepository extends UnversionedRepository<Visualization, Visualization.PrimaryKey> {
@@ -30,10 +35,9 @@ public class VisualizationRepository extends UnversionedRepository<Visualization
 		if (filters == null || filters.length == 0)
 			return null;
 		String statement = "MATCH (pj:Project {id: $})-[:CONTAINS]->(ds:Dataset {id: $})\n" +
-				"MATCH (ds)-[:CONTAINS]->(p:Profile)-[h:HAS {inferenceId: $}]->(c:Coordinate)\n" +
-				"WHERE h.deprecated = false\n" +
-				"WITH pj, ds, h.inferenceId as inferenceId, h.id as id, h.deprecated as deprecated, collect(DISTINCT {profileId: p.id, component: c.component, x: c.x, y: c.y}) as coordinates\n" +
-				"RETURN pj.id as projectId, ds.id as datasetId, inferenceId as inferenceId, id as id, deprecated as deprecated\n" +
+				"MATCH (ds)-[:CONTAINS]->(c:Coordinates {inferenceId: $})\n" +
+				"WHERE c.deprecated = false\n" +
+				"RETURN DISTINCT pj.id as projectId, ds.id as datasetId, c.inferenceId as inferenceId, c.id as id, c.deprecated as deprecated\n" +
 				"ORDER BY pj.id, ds.id, inferenceId, size(id), id SKIP $ LIMIT $";
 		return query(new Query(statement, filters[0], filters[1], filters[2], page, limit));
 	}
@@ -41,11 +45,9 @@ public class VisualizationRepository extends UnversionedRepository<Visualization
 	@Override
 	protected Result get(Visualization.PrimaryKey key) {
 		String statement = "MATCH (pj:Project {id: $})-[:CONTAINS]->(ds:Dataset {id: $})\n" +
-				"MATCH (ds)-[:CONTAINS]->(p:Profile)-[h:HAS {inferenceId: $, id: $}]->(c:Coordinate)\n" +
-				"WITH pj, ds, h.inferenceId as inferenceId, p, h, c\n" +
-				"ORDER BY pj.id, ds.id, inferenceId, size(h.id), h.id, h.component, p.id, c.x, c.y\n" +
-				"RETURN pj.id as projectId, ds.id as datasetId, inferenceId as inferenceId, h.id as id, h.deprecated as deprecated, h.algorithm as algorithm,\n" +
-				"collect(DISTINCT {profileId: p.id, component: h.component, x: c.x, y: c.y}) as coordinates";
+				"MATCH (ds)-[:CONTAINS]->(c:Coordinates {inferenceId: $, id: $})\n" +
+				"RETURN pj.id as projectId, ds.id as datasetId, c.inferenceId as inferenceId, c.id as id, c.deprecated as deprecated, c.algorithm as algorithm,\n" +
+				"c.profiles as profiles, c.components as components, c.x as x, c.y as y";
 		return query(new Query(statement, key.getProjectId(), key.getDatasetId(), key.getInferenceId(), key.getId()));
 	}
 
@@ -60,10 +62,13 @@ public class VisualizationRepository extends UnversionedRepository<Visualization
 		List<Coordinate> list = new ArrayList<>();
 		String projectId = row.get("projectId").toString();
 		String datasetId = row.get("datasetId").toString();
-		for (Map<String, Object> coordinates : (Map<String, Object>[]) row.get("coordinates")) {
-			Profile.PrimaryKey profile = new Profile.PrimaryKey(projectId, datasetId, (String) coordinates.get("profileId"));
-			list.add(new Coordinate(profile, (long) coordinates.get("component"), (double) coordinates.get("x"), (double) coordinates.get("y")));
+		Object[] profiles = (Object[]) row.get("profiles"), components = (Object[]) row.get("components"),
+				x = (Object[]) row.get("x"), y = (Object[]) row.get("y");
+		for (int i = 0; i < profiles.length; i++) {
+			Profile.PrimaryKey profile = new Profile.PrimaryKey(projectId, datasetId, (String) profiles[i]);
+			list.add(new Coordinate(profile, ((Number) components[i]).longValue(), ((Number) x[i]).doubleValue(), ((Number) y[i]).doubleValue()));
 		}
+		list.sort(Comparator.comparingLong(Coordinate::getComponent).thenComparing(c -> c.getProfile().getId()));
 		return new Visualization(projectId,
 				datasetId,
 				row.get("inferenceId").toString(),
@@ -77,9 +82,8 @@ public class VisualizationRepository extends UnversionedRepository<Visualization
 	@Override
 	protected boolean isPresent(Visualization.PrimaryKey key) {
 		String statement = "OPTIONAL MATCH (pj:Project {id: $})-[:CONTAINS]->(ds:Dataset {id: $})\n" +
-				"OPTIONAL MATCH (ds)-[:CONTAINS]->(p:Profile)-[h:HAS {inferenceId: $, id: $}]->(c:Coordinate)\n" +
-				"WITH h.deprecated as deprecated, collect(c) as ignored\n" +
-				"RETURN COALESCE(deprecated = false, false)";
+				"OPTIONAL MATCH (ds)-[:CONTAINS]->(c:Coordinates {inferenceId: $, id: $})\n" +
+				"RETURN false IN collect(c.deprecated)";
 		return query(Boolean.class, new Query(statement, key.getProjectId(), key.getDatasetId(), key.getInferenceId(), key.getId()));
 	}
 
@@ -91,9 +95,9 @@ public class VisualizationRepository extends UnversionedRepository<Visualization
 	@Override
 	protected void delete(Visualization.PrimaryKey key) {
 		String statement = "MATCH (pj:Project {id: $})-[:CONTAINS]->(ds:Dataset {id: $})\n" +
-				"MATCH (ds)-[:CONTAINS]->(p:Profile)-[h:HAS {inferenceId: $, id: $}]->(c:Coordinate)\n" +
-				"WHERE h.deprecated = false\n" +
-				"SET h.deprecated = true";
+				"MATCH (ds)-[:CONTAINS]->(c:Coordinates {inferenceId: $, id: $})\n" +
+				"WHERE c.deprecated = false\n" +
+				"SET c.deprecated = true";
 		execute(new Query(statement, key.getProjectId(), key.getDatasetId(), key.getInferenceId(), key.getId()));
 	}
 
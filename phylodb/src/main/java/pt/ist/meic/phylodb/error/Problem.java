@@ -17,7 +17,8 @@ public enum Problem {
 	BAD_REQUEST(HttpStatus.BAD_REQUEST),
 	BODY_TYPE(HttpStatus.BAD_REQUEST),
 	NOT_ACCEPTABLE(HttpStatus.NOT_ACCEPTABLE),
-	NOT_ALLOWED(HttpStatus.METHOD_NOT_ALLOWED);
+	NOT_ALLOWED(HttpStatus.METHOD_NOT_ALLOWED),
+	TOO_LARGE(HttpStatus.PAYLOAD_TOO_LARGE);
 
 	private final HttpStatus status;
 
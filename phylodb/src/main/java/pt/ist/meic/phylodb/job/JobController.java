@@ -36,8 +36,9 @@ public class JobController extends Controller {
 	/**
 	 * Endpoint to retrieve the specified page of {@link Job jobs}.
 	 * <p>
-	 * Returns the page with information of each job. It requires the user to
-	 * be authenticated and have access to the project.
+	 * Returns the page with information of each job, with the positions in the queue of the queued jobs and the progress of the running jobs,
+	 * and with the depth of the queue, for the project and for every project, in the {@value GetJobsOutputModel#PROJECT_DEPTH} and
+	 * {@value GetJobsOutputModel#DEPTH} headers. It requires the user to be authenticated and have access to the project.
 	 *
 	 * @param projectId identifier of the {@link Project project} that contains the jobs
 	 * @param page      number of the page to retrieve
@@ -49,14 +50,16 @@ public class JobController extends Controller {
 			@PathVariable("project") String projectId,
 			@RequestParam(value = "page", defaultValue = "0") int page
 	) {
-		return getAllJson(l -> service.getJobs(projectId, page, l), GetJobsOutputModel::new);
+		Pair<Integer, Integer> queue = service.getQueue(projectId);
+		return getAllJson(l -> service.getJobs(projectId, page, l), l -> new GetJobsOutputModel(l, queue.getKey(), queue.getValue()));
 	}
 
 	/**
 	 * Endpoint to create the specified {@link Job job}.
 	 * <p>
 	 * Creates the specified job. It requires the user to
-	 * be authenticated and have access to the project.
+	 * be authenticated and have access to the project. The job is rejected if its estimated memory exceeds the memory available to the algorithms,
+	 * and unless the request disables it, the ids of an identical job over the same profiles are returned instead of a new job.
 	 *
 	 * @param projectId  identifier of the {@link Project project} that contains the jobs
 	 * @param inputModel job request
@@ -71,10 +74,12 @@ public class JobController extends Controller {
 		Optional<JobRequest> jobRequest = inputModel.toDomainEntity();
 		if (!jobRequest.isPresent())
 			return new ErrorOutputModel(Problem.BAD_REQUEST).toResponseEntity();
-		Optional<Pair<String, String>> optional = service.createJob(projectId, jobRequest.get());
-		return optional.isPresent() ?
-				new JobAcceptedOutputModel(optional.get().getKey(), optional.get().getValue()).toResponseEntity() :
-				new ErrorOutputModel(Problem.UNAUTHORIZED).toResponseEntity();
+		Optional<Job> optional = service.createJob(projectId, jobRequest.get());
+		if (!optional.isPresent())
+			return new ErrorOutputModel(Problem.UNAUTHORIZED).toResponseEntity();
+		return !optional.get().isRejected() ?
+				new JobAcceptedOutputModel(optional.get()).toResponseEntity() :
+				new ErrorOutputModel(Problem.TOO_LARGE).toResponseEntity();
 	}
 
 	/**
@@ -0,0 +1,204 @@
+package pt.ist.meic.phylodb.job;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import pt.ist.meic.phylodb.job.model.Job;
+import pt.ist.meic.phylodb.job.model.Priority;
+import pt.ist.meic.phylodb.job.model.Status;
+import pt.ist.meic.phylodb.utils.service.Pair;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Class that executes the jobs on a bounded pool of workers
+ * <p>
+ * The jobs are queued by {@link Priority priority} class, and by order of submission within each class. Whenever a worker is free,
+ * it takes the first queued job whose project is running less than {@link #project} jobs, so the jobs of a project don't starve the jobs
+ * of the other projects. If the estimated memory of that job doesn't fit in the {@link #memory} left by the running jobs, no job behind it
+ * is taken until enough memory is released, so the smaller jobs behind it can't keep a larger job waiting forever. A worker marks its
+ * job as running, executes its algorithm through the {@link JobRepository}, and records how the job finished before taking another job.
+ * The job is verified to be running again before and after its algorithm is executed, since a job may be cancelled before its execution
+ * can be killed, in which case the analysis written by the algorithm is deprecated.
+ */
+@Component
+public class JobExecutor {
+
+	private static final Logger LOG = LoggerFactory.getLogger(JobExecutor.class);
+
+	private final JobRepository jobRepository;
+	private final int workers;
+	private final int project;
+	private final long memory;
+	private final ExecutorService pool;
+	private final TreeSet<Execution> queue = new TreeSet<>();
+	private final Map<String, Integer> running = new HashMap<>();
+	private long sequence;
+	private int active;
+	private long used;
+
+	public JobExecutor(JobRepository jobRepository,
+					   @Value("${application.limits.jobs.workers}") int workers,
+					   @Value("${application.limits.jobs.project}") int project,
+					   @Value("${application.limits.jobs.memory}") long memory) {
+		this.jobRepository = jobRepository;
+		this.workers = workers;
+		this.project = project;
+		this.memory = memory;
+		this.pool = Executors.newFixedThreadPool(workers);
+	}
+
+	/**
+	 * Queues a job to be executed
+	 *
+	 * @param job      {@link Job} to be executed
+	 * @param priority {@link Priority} class of the job
+	 * @return {@code true} if the job was queued
+	 */
+	public synchronized boolean submit(Job job, Priority priority) {
+		if (job == null || pool.isShutdown())
+			return false;
+		queue.add(new Execution(job, priority, sequence++));
+		dispatch();
+		return true;
+	}
+
+	/**
+	 * Removes a job from the queue, if it wasn't taken by a worker yet
+	 *
+	 * @param key job id
+	 * @return {@code true} if the job was queued and it was removed
+	 */
+	public synchronized boolean cancel(Job.PrimaryKey key) {
+		return queue.removeIf(e -> e.job.getPrimaryKey().equals(key));
+	}
+
+	/**
+	 * Retrieves the queued jobs of a project, with their positions in the queue
+	 *
+	 * @param projectId identifier of the project
+	 * @return queued {@link Job jobs} of the project, by order of execution
+	 */
+	public synchronized List<Job> queued(String projectId) {
+		List<Job> jobs = new ArrayList<>();
+		int position = 0;
+		for (Execution execution : queue) {
+			position++;
+			Job.PrimaryKey key = execution.job.getPrimaryKey();
+			if (key.getProjectId().equals(projectId))
+				jobs.add(new Job(key.getProjectId(), key.getId(), position));
+		}
+		return jobs;
+	}
+
+	/**
+	 * Retrieves the depth of the queue, for a project and for every project
+	 *
+	 * @param projectId identifier of the project
+	 * @return {@link Pair} with the number of queued jobs of the project and the number of queued jobs
+	 */
+	public synchronized Pair<Integer, Integer> depth(String projectId) {
+		int queued = (int) queue.stream()
+				.filter(e -> e.job.getPrimaryKey().getProjectId().equals(projectId))
+				.count();
+		return new Pair<>(queued, queue.size());
+	}
+
+	/**
+	 * Marks the jobs that were left unfinished by a previous execution of the application as failed, since their workers are gone
+	 */
+	@PostConstruct
+	public void recover() {
+		try {
+			jobRepository.interrupt();
+		} catch (RuntimeException e) {
+			LOG.info("jobs couldn't be recovered: " + e.getMessage());
+		}
+	}
+
+	@PreDestroy
+	public synchronized void shutdown() {
+		queue.clear();
+		pool.shutdownNow();
+	}
+
+	private void dispatch() {
+		Iterator<Execution> iterator = queue.iterator();
+		while (active < workers && iterator.hasNext()) {
+			Execution execution = iterator.next();
+			String projectId = execution.job.getPrimaryKey().getProjectId();
+			if (running.getOrDefault(projectId, 0) >= project)
+				continue;
+			if (active > 0 && used + execution.memory() > memory)
+				break;
+			iterator.remove();
+			running.merge(projectId, 1, Integer::sum);
+			used += execution.memory();
+			active++;
+			pool.execute(() -> run(execution));
+		}
+	}
+
+	private void run(Execution execution) {
+		Job.PrimaryKey key = execution.job.getPrimaryKey();
+		Status status = Status.FAILED;
+		try {
+			if (!jobRepository.start(key) || !jobRepository.isRunning(key))
+				return;
+			jobRepository.run(execution.job);
+			status = Status.COMPLETED;
+		} catch (RuntimeException e) {
+			LOG.info("job " + key.getProjectId() + "-" + key.getId() + " failed: " + e.getMessage());
+		} finally {
+			try {
+				if (!jobRepository.finish(key, status) && status == Status.COMPLETED)
+					jobRepository.discard(execution.job);
+			} catch (RuntimeException e) {
+				LOG.info("job " + key.getProjectId() + "-" + key.getId() + " couldn't be finished: " + e.getMessage());
+			} finally {
+				release(execution);
+			}
+		}
+	}
+
+	private synchronized void release(Execution execution) {
+		running.computeIfPresent(execution.job.getPrimaryKey().getProjectId(), (k, v) -> v == 1 ? null : v - 1);
+		used -= execution.memory();
+		active--;
+		if (!pool.isShutdown())
+			dispatch();
+	}
+
+	/**
+	 * Job waiting in the queue, which is ordered by its {@link #priority} and {@link #sequence}
+	 */
+	private static class Execution implements Comparable<Execution> {
+
+		private final Job job;
+		private final Priority priority;
+		private final long sequence;
+
+		private Execution(Job job, Priority priority, long sequence) {
+			this.job = job;
+			this.priority = priority;
+			this.sequence = sequence;
+		}
+
+		private long memory() {
+			return job.getEstimate() == null ? 0 : job.getEstimate().getTotal();
+		}
+
+		@Override
+		public int compareTo(Execution other) {
+			int compare = priority.compareTo(other.priority);
+			return compare != 0 ? compare : Long.compare(sequence, other.sequence);
+		}
+
+	}
+
+}
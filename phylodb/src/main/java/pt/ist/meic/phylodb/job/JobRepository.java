@@ -3,7 +3,10 @@ package pt.ist.meic.phylodb.job;
 import org.neo4j.ogm.model.Result;
 import org.neo4j.ogm.session.Session;
 import org.springframework.stereotype.Repository;
+import pt.ist.meic.phylodb.analysis.Analysis;
 import pt.ist.meic.phylodb.job.model.Job;
+import pt.ist.meic.phylodb.job.model.Progress;
+import pt.ist.meic.phylodb.job.model.Status;
 import pt.ist.meic.phylodb.utils.db.Query;
 
 import java.util.*;
@@ -12,19 +15,24 @@ import java.util.stream.StreamSupport;
 
 /**
  * Class that contains the implementation of the {@link pt.ist.meic.phylodb.utils.db.Repository} for jobs
+ * <p>
+ * The jobs are kept as nodes of their projects, with their states and times, so they outlive the executions of the algorithms and
+ * the restarts of the application. The algorithms are executed by calling their procedures, and their progress is retrieved from the
+ * {@code algorithms.progress} procedure.
  */
 @Repository
 public class JobRepository extends pt.ist.meic.phylodb.utils.db.Repository {
 
 	public static final String FULLY_QUALIFIED = "algorithms.%s";
-	public static final int UUID_LENGTH = UUID.randomUUID().toString().length();
+	private static final String FIELDS = "pj.id as projectId, j.id as id, j.algorithm as algorithm, j.analysis as analysisId, j.parameters as parameters,\n" +
+			"j.status as status, j.memory as memory, j.created.epochMillis as created, j.started.epochMillis as started, j.finished.epochMillis as finished";
 
 	protected JobRepository(Session session) {
 		super(session);
 	}
 
 	/**
-	 * Retrieves a page of {@link Job} as a result
+	 * Retrieves a page of {@link Job} as a result, from the most recent to the oldest
 	 *
 	 * @param page    number of the page to retrieve
 	 * @param limit   number of {@link Job} to retrieve by page
@@ -40,6 +48,27 @@ public class JobRepository extends pt.ist.meic.phylodb.utils.db.Repository {
 				.collect(Collectors.toList()));
 	}
 
+	/**
+	 * Retrieves the jobs of a project with the same fingerprint that are queued, running or completed, from the most recent to the oldest
+	 *
+	 * @param projectId   identifier of the project
+	 * @param fingerprint fingerprint of the algorithm, parameters and profiles of the job
+	 * @return list of identical {@link Job jobs}
+	 */
+	public List<Job> findIdentical(String projectId, String fingerprint) {
+		if (fingerprint == null)
+			return Collections.emptyList();
+		String statement = "MATCH (pj:Project {id: $})-[:CONTAINS]->(j:Job {fingerprint: $})\n" +
+				"WHERE j.status IN ['QUEUED', 'RUNNING', 'COMPLETED']\n" +
+				"RETURN " + FIELDS + "\n" +
+				"ORDER BY j.created DESC, j.id";
+		Result result = query(new Query(statement, projectId, fingerprint));
+		if (result == null) return Collections.emptyList();
+		return StreamSupport.stream(result.spliterator(), false)
+				.map(this::parse)
+				.collect(Collectors.toList());
+	}
+
 	/**
 	 * Verifies if an job identified by the {@link Job.PrimaryKey key} exists
 	 *
@@ -51,9 +80,10 @@ public class JobRepository extends pt.ist.meic.phylodb.utils.db.Repository {
 	}
 
 	/**
-	 * Saves the {@link Job job}
+	 * Saves the {@link Job job} as queued
 	 *
 	 * @param entity {@link Job} to be saved
+	 * @return {@code true} if the job was saved
 	 */
 	public boolean save(Job entity) {
 		if (entity == null)
@@ -63,61 +93,180 @@ public class JobRepository extends pt.ist.meic.phylodb.utils.db.Repository {
 	}
 
 	/**
-	 * Removes the {@link Job job} identified by the {@link Job.PrimaryKey key}
+	 * Cancels the {@link Job job} identified by the {@link Job.PrimaryKey key}, and kills the execution of its algorithm if it is running
 	 *
 	 * @param key job id
+	 * @return {@code true} if the job was queued or running
 	 */
 	public boolean remove(Job.PrimaryKey key) {
-		if (!exists(key))
+		if (key == null)
 			return false;
-		delete(key);
+		String statement = "MATCH (pj:Project {id: $})-[:CONTAINS]->(j:Job {id: $})\n" +
+				"WHERE j.status IN ['QUEUED', 'RUNNING']\n" +
+				"SET j.status = 'CANCELLED', j.finished = datetime()\n" +
+				"RETURN j.analysis";
+		String analysisId = query(String.class, new Query(statement, key.getProjectId(), key.getId()));
+		if (analysisId == null)
+			return false;
+		kill(analysisId);
 		return true;
 	}
 
+	/**
+	 * Marks the {@link Job job} identified by the {@link Job.PrimaryKey key} as running, if it is still queued
+	 *
+	 * @param key job id
+	 * @return {@code true} if the job was queued
+	 */
+	public boolean start(Job.PrimaryKey key) {
+		String statement = "MATCH (pj:Project {id: $})-[:CONTAINS]->(j:Job {id: $, status: 'QUEUED'})\n" +
+				"SET j.status = 'RUNNING', j.started = datetime()\n" +
+				"RETURN COUNT(j) > 0";
+		Boolean result = query(Boolean.class, new Query(statement, key.getProjectId(), key.getId()));
+		return result != null && result;
+	}
+
+	/**
+	 * Verifies if the {@link Job job} identified by the {@link Job.PrimaryKey key} is still running, which is no longer the case if it was cancelled
+	 *
+	 * @param key job id
+	 * @return {@code true} if the job is running
+	 */
+	public boolean isRunning(Job.PrimaryKey key) {
+		String statement = "OPTIONAL MATCH (pj:Project {id: $})-[:CONTAINS]->(j:Job {id: $, status: 'RUNNING'})\n" +
+				"RETURN COALESCE(j IS NOT NULL, false)";
+		Boolean result = query(Boolean.class, new Query(statement, key.getProjectId(), key.getId()));
+		return result != null && result;
+	}
+
+	/**
+	 * Executes the algorithm of the {@link Job job}, which only returns when the algorithm finishes
+	 *
+	 * @param job {@link Job} to be executed
+	 */
+	public void run(Job job) {
+		Object[] params = new Object[job.getParams().length + 2];
+		params[0] = job.getPrimaryKey().getProjectId();
+		System.arraycopy(job.getParams(), 0, params, 1, job.getParams().length);
+		params[params.length - 1] = job.getAnalysisId();
+		String arguments = String.join(", ", Collections.nCopies(params.length, "$"));
+		execute(new Query("CALL " + String.format(FULLY_QUALIFIED, job.getAlgorithm()) + "(" + arguments + ")", params));
+	}
+
+	/**
+	 * Marks the {@link Job job} identified by the {@link Job.PrimaryKey key} with the state in which it finished, if it is still running
+	 *
+	 * @param key    job id
+	 * @param status final {@link Status state} of the job
+	 * @return {@code true} if the job was still running
+	 */
+	public boolean finish(Job.PrimaryKey key, Status status) {
+		String statement = "MATCH (pj:Project {id: $})-[:CONTAINS]->(j:Job {id: $, status: 'RUNNING'})\n" +
+				"SET j.status = $, j.finished = datetime()\n" +
+				"RETURN COUNT(j) > 0";
+		Boolean result = query(Boolean.class, new Query(statement, key.getProjectId(), key.getId(), status.name()));
+		return result != null && result;
+	}
+
+	/**
+	 * Deprecates the analysis written by the {@link Job job}, which is used when the job was cancelled while its algorithm was running
+	 * but the execution of the algorithm couldn't be killed
+	 *
+	 * @param job {@link Job} that wrote the analysis
+	 */
+	public void discard(Job job) {
+		String projectId = job.getPrimaryKey().getProjectId(), datasetId = String.valueOf(job.getParams()[0]);
+		String statement;
+		Query query;
+		if (job.getAlgorithm().startsWith(Analysis.INFERENCE.getName() + ".")) {
+			statement = "MATCH (pj:Project {id: $})-[:CONTAINS]->(ds:Dataset {id: $})\n" +
+					"MATCH (ds)-[:CONTAINS]->(p1:Profile)-[d:DISTANCES {id: $}]->(p2:Profile)\n" +
+					"SET d.deprecated = true\n" +
+					"WITH ds, d.id as analysis, collect(d) as ignored\n" +
+					"MATCH (ds)-[:CONTAINS]->(c:Coordinates {inferenceId: analysis})\n" +
+					"WHERE c.deprecated = false\n" +
+					"SET c.deprecated = true";
+			query = new Query(statement, projectId, datasetId, job.getAnalysisId());
+		} else {
+			statement = "MATCH (pj:Project {id: $})-[:CONTAINS]->(ds:Dataset {id: $})\n" +
+					"MATCH (ds)-[:CONTAINS]->(c:Coordinates {inferenceId: $, id: $})\n" +
+					"SET c.deprecated = true";
+			query = new Query(statement, projectId, datasetId, String.valueOf(job.getParams()[1]), job.getAnalysisId());
+		}
+		execute(query);
+	}
+
+	/**
+	 * Marks the jobs that are queued or running as failed, which is used when the application starts since no worker is executing them
+	 */
+	public void interrupt() {
+		String statement = "MATCH (j:Job) WHERE j.status IN ['QUEUED', 'RUNNING']\n" +
+				"SET j.status = 'FAILED', j.finished = datetime()";
+		execute(new Query(statement));
+	}
+
+	/**
+	 * Retrieves the progress of the running algorithms of a project
+	 *
+	 * @param projectId identifier of the project
+	 * @return map with the {@link Progress progress} of each running analysis
+	 */
+	public Map<String, Progress> progress(String projectId) {
+		String statement = "CALL algorithms.progress($) YIELD analysis, phase, processed, total, remaining\n" +
+				"RETURN analysis, phase, processed, total, remaining";
+		Map<String, Progress> progress = new HashMap<>();
+		try {
+			for (Map<String, Object> row : query(new Query(statement, projectId)))
+				progress.put((String) row.get("analysis"), new Progress((String) row.get("phase"),
+						(long) row.get("processed"), (long) row.get("total"), (long) row.get("remaining")));
+		} catch (RuntimeException e) {
+			return Collections.emptyMap();
+		}
+		return progress;
+	}
+
 	private Result getAll(int page, int limit, Object... filters) {
-		String statement = "CALL apoc.periodic.list() YIELD name, done, cancelled\n" +
-				"WHERE name STARTS WITH $\n" +
-				"RETURN name as name, done as completed, cancelled as cancelled\n" +
-				"ORDER BY size(name), name SKIP $ LIMIT $";
+		String statement = "MATCH (pj:Project {id: $})-[:CONTAINS]->(j:Job)\n" +
+				"RETURN " + FIELDS + "\n" +
+				"ORDER BY j.created DESC, j.id SKIP $ LIMIT $";
 		return query(new Query(statement, filters[0], page, limit));
 	}
 
 	private Job parse(Map<String, Object> row) {
-		String name = (String) row.get("name");
-		String project = name.substring(0, UUID_LENGTH);
-		String id = name.substring(UUID_LENGTH + 1);
-		return new Job(project,
-				id,
-				(boolean) row.get("completed"),
-				(boolean) row.get("cancelled")
+		return new Job(row.get("projectId").toString(),
+				row.get("id").toString(),
+				(String) row.get("algorithm"),
+				(String) row.get("analysisId"),
+				(Object[]) row.get("parameters"),
+				Status.valueOf((String) row.get("status")),
+				(long) row.get("memory"),
+				(Long) row.get("created"),
+				(Long) row.get("started"),
+				(Long) row.get("finished")
 		);
 	}
 
 	private boolean isPresent(Job.PrimaryKey key) {
-		String statement = "CALL apoc.periodic.list() YIELD name, done, cancelled\n" +
-				"WHERE name = $\n" +
-				"RETURN COALESCE(name is not null, false)";
-		Boolean result = query(Boolean.class, new Query(statement, name(key.getProjectId(), key.getId())));
-		return result == null ? false : result;
+		String statement = "OPTIONAL MATCH (pj:Project {id: $})-[:CONTAINS]->(j:Job {id: $})\n" +
+				"RETURN COALESCE(j IS NOT NULL, false)";
+		Boolean result = query(Boolean.class, new Query(statement, key.getProjectId(), key.getId()));
+		return result != null && result;
 	}
 
 	private void store(Job job) {
 		Job.PrimaryKey key = job.getPrimaryKey();
-		String jobName = name(key.getProjectId(), key.getId());
-		String params = Arrays.stream(job.getParams())
-				.map(s -> s.getClass().equals(String.class) ? "'" + s + "'" : String.valueOf(s))
-				.collect(Collectors.joining(","));
-		params = "'" + key.getProjectId() + "'," + params + ",'" + job.getAnalysisId() + "'";
-		String statement = "CALL apoc.periodic.submit($, 'CALL ' + $ + '(' + $ + ')') YIELD name, delay, rate, done, cancelled RETURN 0";
-		execute(new Query(statement, jobName, String.format(FULLY_QUALIFIED, job.getAlgorithm()), params));
-	}
-
-	private void delete(Job.PrimaryKey key) {
-		execute(new Query("CALL apoc.periodic.cancel($)", name(key.getProjectId(), key.getId())));
+		String[] params = Arrays.stream(job.getParams()).map(String::valueOf).toArray(String[]::new);
+		String statement = "MATCH (pj:Project {id: $})\n" +
+				"CREATE (pj)-[:CONTAINS]->(j:Job {id: $, algorithm: $, analysis: $, parameters: $, fingerprint: $, status: 'QUEUED', memory: $, created: datetime()})";
+		execute(new Query(statement, key.getProjectId(), key.getId(), job.getAlgorithm(), job.getAnalysisId(), params, job.getFingerprint(), job.getMemory()));
 	}
 
-	private String name(String projectId, String jobId) {
-		return projectId + "-" + jobId;
+	private void kill(String analysisId) {
+		String statement = "CALL dbms.listQueries() YIELD queryId, query, parameters\n" +
+				"WHERE query STARTS WITH 'CALL algorithms.' AND $ IN [k IN keys(parameters) | parameters[k]]\n" +
+				"CALL dbms.killQuery(queryId) YIELD queryId as killed\n" +
+				"RETURN COUNT(killed)";
+		execute(new Query(statement, analysisId));
 	}
 
 }
@@ -1,20 +1,28 @@
 package pt.ist.meic.phylodb.job;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import pt.ist.meic.phylodb.analysis.Analysis;
 import pt.ist.meic.phylodb.analysis.inference.InferenceRepository;
 import pt.ist.meic.phylodb.analysis.inference.model.Inference;
+import pt.ist.meic.phylodb.analysis.visualization.VisualizationRepository;
+import pt.ist.meic.phylodb.analysis.visualization.model.Visualization;
+import pt.ist.meic.phylodb.job.model.Estimate;
 import pt.ist.meic.phylodb.job.model.Job;
 import pt.ist.meic.phylodb.job.model.JobRequest;
+import pt.ist.meic.phylodb.job.model.Priority;
+import pt.ist.meic.phylodb.job.model.Progress;
+import pt.ist.meic.phylodb.job.model.Status;
 import pt.ist.meic.phylodb.security.project.model.Project;
+import pt.ist.meic.phylodb.typing.Method;
+import pt.ist.meic.phylodb.typing.dataset.model.Dataset;
 import pt.ist.meic.phylodb.typing.profile.ProfileRepository;
+import pt.ist.meic.phylodb.typing.schema.SchemaRepository;
 import pt.ist.meic.phylodb.utils.service.Pair;
 
-import java.util.Collections;
-import java.util.List;
-import java.util.Optional;
-import java.util.UUID;
+import java.util.*;
+import java.util.stream.Collectors;
 
 /**
  * Class that contains operations to manage jobs
@@ -25,17 +33,29 @@ import java.util.UUID;
 public class JobService extends pt.ist.meic.phylodb.utils.service.Service  {
 
 	private JobRepository jobRepository;
+	private JobExecutor jobExecutor;
 	private ProfileRepository profileRepository;
+	private SchemaRepository schemaRepository;
 	private InferenceRepository inferenceRepository;
+	private VisualizationRepository visualizationRepository;
 
-	public JobService(JobRepository jobRepository, ProfileRepository profileRepository, InferenceRepository inferenceRepository) {
+	@Value("${application.limits.jobs.memory}")
+	private long memory;
+
+	public JobService(JobRepository jobRepository, JobExecutor jobExecutor, ProfileRepository profileRepository, SchemaRepository schemaRepository, InferenceRepository inferenceRepository, VisualizationRepository visualizationRepository) {
 		this.jobRepository = jobRepository;
+		this.jobExecutor = jobExecutor;
 		this.profileRepository = profileRepository;
+		this.schemaRepository = schemaRepository;
 		this.inferenceRepository = inferenceRepository;
+		this.visualizationRepository = visualizationRepository;
 	}
 
 	/**
 	 * Operation to retrieve the information of the requested jobs
+	 * <p>
+	 * The jobs that are waiting in the queue are retrieved with their positions in the queue, and the running jobs are retrieved with
+	 * the progress reported by their algorithms.
 	 *
 	 * @param projectId identifier of the {@link Project project} that contains the jobs
 	 * @param page      number of the page to retrieve
@@ -44,7 +64,27 @@ public class JobService extends pt.ist.meic.phylodb.utils.service.Service  {
 	 */
 	@Transactional(readOnly = true)
 	public Optional<List<Job>> getJobs(String projectId, int page, Integer limit) {
-		return jobRepository.findAll(page, limit, projectId);
+		Optional<List<Job>> jobs = jobRepository.findAll(page, limit, projectId);
+		if (!jobs.isPresent() || jobs.get().isEmpty())
+			return jobs;
+		Map<Job.PrimaryKey, Integer> positions = jobExecutor.queued(projectId).stream()
+				.collect(Collectors.toMap(Job::getPrimaryKey, Job::getPosition));
+		Map<String, Progress> progress = jobs.get().stream().anyMatch(j -> j.getStatus() == Status.RUNNING)
+				? jobRepository.progress(projectId)
+				: Collections.emptyMap();
+		return jobs.map(l -> l.stream()
+				.map(j -> new Job(j, positions.get(j.getPrimaryKey()), progress.get(j.getAnalysisId())))
+				.collect(Collectors.toList()));
+	}
+
+	/**
+	 * Operation to retrieve the depth of the queue of jobs
+	 *
+	 * @param projectId identifier of the {@link Project project} that contains the jobs
+	 * @return {@link Pair} with the number of queued jobs of the project and the number of queued jobs of every project
+	 */
+	public Pair<Integer, Integer> getQueue(String projectId) {
+		return jobExecutor.depth(projectId);
 	}
 
 	/**
@@ -54,39 +94,103 @@ public class JobService extends pt.ist.meic.phylodb.utils.service.Service  {
 	 * It will create the job if:
 	 * - The job is an inference analysis and there is at least 2 profiles in the dataset
 	 * - The job is a visualization analysis and the respective inference exists
+	 * The memory needed by the job is estimated from the number of profiles and loci of the dataset, from its schema methodology and from the lvs, and
+	 * the job is rejected without being submitted if the estimate exceeds the memory available to the algorithms. Otherwise the job is
+	 * saved as queued and submitted to the {@link JobExecutor executor}, where the visualizations take {@link Priority priority} over the inferences.
+	 * The job is fingerprinted with its algorithm, its parameters, and the current versions of the profiles of the dataset, and if the request
+	 * allows it, an identical job that is queued, running, or that completed an analysis that still exists, is returned as reused instead.
+	 * The operation isn't transactional, since the job must be saved before a worker of the executor takes it.
 	 *
 	 * @param projectId  identifier of the {@link Project project} that contains the jobs
 	 * @param jobRequest job request which contains the job information
-	 * @return an {@link Optional} with a {@link Pair<String, String>} that are the created job id and the created analysis id
+	 * @return an {@link Optional} with the created or reused {@link Job job}, which contains its estimate and whether it was rejected
 	 */
-	@Transactional
-	public Optional<Pair<String, String>> createJob(String projectId, JobRequest jobRequest) {
-		if (!valid(projectId, jobRequest))
+	public Optional<Job> createJob(String projectId, JobRequest jobRequest) {
+		Optional<Estimate> estimate = estimate(projectId, jobRequest);
+		if (!estimate.isPresent())
 			return Optional.empty();
 		String jobId = UUID.randomUUID().toString();
 		String analysisId = UUID.randomUUID().toString();
-		return jobRepository.save(new Job(projectId, jobId, jobRequest.getType().getName() + "." + jobRequest.getAlgorithm(), analysisId, jobRequest.getParameters())) ?
-				Optional.of(new Pair<>(jobId, analysisId)) :
-				Optional.empty();
+		String algorithm = jobRequest.getType().getName() + "." + jobRequest.getAlgorithm();
+		Object[] params = jobRequest.getParameters();
+		if (jobRequest.getType() == Analysis.INFERENCE)
+			params = new Object[]{params[0], lvs(params[1]).get()};
+		String fingerprint = fingerprint(projectId, algorithm, params);
+		if (jobRequest.isReuse()) {
+			Optional<Job> identical = identical(projectId, fingerprint);
+			if (identical.isPresent())
+				return identical;
+		}
+		if (estimate.get().getTotal() > memory)
+			return Optional.of(new Job(projectId, jobId, algorithm, analysisId, params, fingerprint, estimate.get(), true));
+		Job job = new Job(projectId, jobId, algorithm, analysisId, params, fingerprint, estimate.get(), false);
+		if (!jobRepository.save(job))
+			return Optional.empty();
+		if (!jobExecutor.submit(job, Priority.of(jobRequest.getType()))) {
+			jobRepository.remove(job.getPrimaryKey());
+			return Optional.empty();
+		}
+		return Optional.of(job);
 	}
 
 	/**
 	 * Operation to remove a job
+	 * <p>
+	 * A queued job is removed from the queue, otherwise the execution of the job is killed, and the job is kept as cancelled.
+	 * The operation isn't transactional, since the cancellation must be committed before the execution is killed, otherwise the
+	 * killed worker would wait for it and overwrite it when finishing the job.
 	 *
 	 * @param projectId identifier of the {@link Project project} that contains the jobs
 	 * @param jobId     identifier of the {@link Job job}
-	 * @return {@code true} if the job was removed
+	 * @return {@code true} if the job was queued or running
 	 */
-	@Transactional
 	public boolean deleteJob(String projectId, String jobId) {
-		return jobRepository.remove(new Job.PrimaryKey(projectId, jobId));
+		Job.PrimaryKey key = new Job.PrimaryKey(projectId, jobId);
+		jobExecutor.cancel(key);
+		return jobRepository.remove(key);
 	}
 
-	private boolean valid(String projectId, JobRequest jobRequest) {
+	private Optional<Estimate> estimate(String projectId, JobRequest jobRequest) {
 		Object[] params = jobRequest.getParameters();
-		return jobRequest.getType() == Analysis.INFERENCE ?
-				profileRepository.findAllEntities(0, 2, projectId, params[0]).orElse(Collections.emptyList()).size() > 1 :
-				inferenceRepository.exists(new Inference.PrimaryKey(projectId, (String) params[0], (String) params[1]));
+		if (jobRequest.getType() == Analysis.INFERENCE) {
+			boolean snp = schemaRepository.find(new Dataset.PrimaryKey(projectId, String.valueOf(params[0])))
+					.filter(s -> s.getType() == Method.SNP)
+					.isPresent();
+			return profileRepository.dimensions(projectId, String.valueOf(params[0]))
+					.filter(d -> d.getKey() > 1)
+					.flatMap(d -> lvs(params[1]).map(lvs -> Estimate.inference(d.getKey(), d.getValue(), lvs, snp)));
+		}
+		if (!inferenceRepository.exists(new Inference.PrimaryKey(projectId, String.valueOf(params[0]), String.valueOf(params[1]))))
+			return Optional.empty();
+		return profileRepository.dimensions(projectId, String.valueOf(params[0])).map(d -> Estimate.visualization(d.getKey()));
+	}
+
+	private String fingerprint(String projectId, String algorithm, Object[] params) {
+		return profileRepository.fingerprint(projectId, String.valueOf(params[0]))
+				.map(profiles -> algorithm + Arrays.toString(params) + ":" + profiles)
+				.orElse(null);
+	}
+
+	private Optional<Job> identical(String projectId, String fingerprint) {
+		return jobRepository.findIdentical(projectId, fingerprint).stream()
+				.filter(j -> j.getStatus() != Status.COMPLETED || exists(j))
+				.findFirst()
+				.map(j -> new Job(j, true));
+	}
+
+	private boolean exists(Job job) {
+		String projectId = job.getPrimaryKey().getProjectId(), datasetId = String.valueOf(job.getParams()[0]);
+		if (job.getAlgorithm().startsWith(Analysis.INFERENCE.getName() + "."))
+			return inferenceRepository.exists(new Inference.PrimaryKey(projectId, datasetId, job.getAnalysisId()));
+		return visualizationRepository.exists(new Visualization.PrimaryKey(projectId, datasetId, String.valueOf(job.getParams()[1]), job.getAnalysisId()));
+	}
+
+	private Optional<Long> lvs(Object param) {
+		try {
+			return Optional.of(Long.parseLong(String.valueOf(param)));
+		} catch (NumberFormatException e) {
+			return Optional.empty();
+		}
 	}
 
 }
@@ -0,0 +1,78 @@
+package pt.ist.meic.phylodb.job.model;
+
+/**
+ * An Estimate is the memory that an algorithm execution is expected to need in the heap of the database
+ * <p>
+ * An Estimate is constituted by the {@link #matrix}, that is the size of the encoded profiles and of their distances, by the {@link #edges},
+ * that is the size of the candidate and inferred edges, and by the {@link #tree}, that is the size of the tree laid out by a visualization.
+ * The sizes are given in bytes, and follow the representations used by the algorithms, so they are estimated before the job is submitted.
+ */
+public class Estimate {
+
+	private static final int PROFILE = 136, CANDIDATE = 28, EDGE = 40, VERTEX = 232;
+
+	private final long matrix;
+	private final long edges;
+	private final long tree;
+
+	public Estimate(long matrix, long edges, long tree) {
+		this.matrix = matrix;
+		this.edges = edges;
+		this.tree = tree;
+	}
+
+	/**
+	 * Estimates the memory of an inference over the profiles of a dataset
+	 * <p>
+	 * The alleles of the datasets of SNP profiles are packed with 2 bits per site and 1 presence bit per site, in words of 64 bits,
+	 * while the alleles of the other datasets are encoded as an integer per locus. The distances are kept when every pair of profiles
+	 * is compared, which happens when the lvs aren't lower than the loci, and for the datasets of SNP profiles, which can't be split by locus.
+	 * The candidates are bounded by the number of pairs of profiles, since every pair of a clonal dataset can be within the lvs, so the
+	 * estimate is the worst case of the candidates rather than their expected number.
+	 *
+	 * @param profiles number of profiles of the dataset
+	 * @param loci     number of loci of the dataset
+	 * @param lvs      number of lvs
+	 * @param snp      {@code true} if the dataset is of SNP profiles
+	 * @return estimate of the inference
+	 */
+	public static Estimate inference(long profiles, long loci, long lvs, boolean snp) {
+		long words = (loci + Long.SIZE - 1) / Long.SIZE;
+		long alleles = snp ? 3 * words * Long.BYTES : loci * Integer.BYTES;
+		long pairs = profiles * (profiles - 1) / 2;
+		long matrix = profiles * (PROFILE + alleles);
+		if (snp || lvs >= loci) {
+			int width = lvs < 0xFF ? Byte.BYTES : lvs < 0xFFFF ? Short.BYTES : Integer.BYTES;
+			matrix += pairs * width;
+		}
+		long edges = pairs * CANDIDATE + Math.max(profiles - 1, 0) * EDGE;
+		return new Estimate(matrix, edges, 0);
+	}
+
+	/**
+	 * Estimates the memory of a visualization of an inference over the profiles of a dataset
+	 *
+	 * @param profiles number of profiles of the dataset
+	 * @return estimate of the visualization
+	 */
+	public static Estimate visualization(long profiles) {
+		return new Estimate(0, Math.max(profiles - 1, 0) * EDGE, profiles * VERTEX);
+	}
+
+	public long getMatrix() {
+		return matrix;
+	}
+
+	public long getEdges() {
+		return edges;
+	}
+
+	public long getTree() {
+		return tree;
+	}
+
+	public long getTotal() {
+		return matrix + edges + tree;
+	}
+
+}
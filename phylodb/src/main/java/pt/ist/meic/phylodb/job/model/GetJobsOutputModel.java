@@ -11,21 +11,32 @@ import java.util.stream.Collectors;
  * A GetJobsOutputModel is the output model representation of a set of {@link Job jobs}
  * <p>
  * A GetJobsOutputModel is constituted by the {@link #jobs} field that contains the information of each job.
- * Each information is represented by an {@link JobOutputModel} object.
+ * Each information is represented by an {@link JobOutputModel} object. The {@link #queued} jobs of the project and the
+ * {@link #depth} of the queue, which are the queued jobs of every project, are given in the {@link #PROJECT_DEPTH} and
+ * {@link #DEPTH} headers.
  */
 public class GetJobsOutputModel implements OutputModel {
 
+	public static final String PROJECT_DEPTH = "Project-Queue-Depth", DEPTH = "Queue-Depth";
+
 	private final List<JobOutputModel> jobs;
+	private final int queued;
+	private final int depth;
 
-	public GetJobsOutputModel(List<Job> jobs) {
+	public GetJobsOutputModel(List<Job> jobs, int queued, int depth) {
 		this.jobs = jobs.stream()
 				.map(JobOutputModel::new)
 				.collect(Collectors.toList());
+		this.queued = queued;
+		this.depth = depth;
 	}
 
 	@Override
 	public ResponseEntity<List<JobOutputModel>> toResponseEntity() {
-		return ResponseEntity.status(HttpStatus.OK).body(jobs);
+		return ResponseEntity.status(HttpStatus.OK)
+				.header(PROJECT_DEPTH, String.valueOf(queued))
+				.header(DEPTH, String.valueOf(depth))
+				.body(jobs);
 	}
 
 }
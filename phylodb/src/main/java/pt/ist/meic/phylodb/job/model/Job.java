@@ -9,7 +9,11 @@ import java.util.Objects;
  * A job is constituted by the {@link #id}, to identify to the job, by the {@link #algorithm} that is the respective algorithm,
  * the {@link #params}, that can be the dataset id in case of being an inference job, or the dataset id and inference id, in case of
  * being a visualization job. It is also composed of {@link #analysisId}, that is the id generated for the result of the job, and the
- * {@link #completed}, and {@link #cancelled} which are the status of the job.
+ * {@link #status} of the job, with the times when it was {@link #created}, {@link #started} and {@link #finished}, in milliseconds since the epoch.
+ * The {@link #memory} is the memory the job is expected to need, given by its {@link #estimate} when it is created, and a job is {@link #rejected}
+ * when it wouldn't fit in the memory available to the algorithms. A job that is waiting to be executed has its {@link #position} in the queue,
+ * and a running job has the {@link #progress} reported by the algorithm. The {@link #fingerprint} identifies the algorithm, the parameters, and
+ * the versions of the profiles of the job, so a job is {@link #reused} when it is returned for an identical request.
  */
 public class Job {
 
@@ -17,13 +21,22 @@ public class Job {
 	private String algorithm;
 	private Object[] params;
 	private String analysisId;
-	private boolean completed;
-	private boolean cancelled;
-
-	public Job(String projectId, String jobId, boolean completed, boolean cancelled) {
+	private Status status;
+	private long memory;
+	private Long created;
+	private Long started;
+	private Long finished;
+	private String fingerprint;
+	private Estimate estimate;
+	private boolean rejected;
+	private boolean reused;
+	private Integer position;
+	private Progress progress;
+
+	public Job(String projectId, String jobId, int position) {
 		this.id = new PrimaryKey(projectId, jobId);
-		this.completed = completed;
-		this.cancelled = cancelled;
+		this.status = Status.QUEUED;
+		this.position = position;
 	}
 
 	public Job(String projectId, String jobId, String algorithm, String analysisId, Object[] params) {
@@ -31,6 +44,43 @@ public class Job {
 		this.algorithm = algorithm;
 		this.analysisId = analysisId;
 		this.params = params;
+		this.status = Status.QUEUED;
+	}
+
+	public Job(String projectId, String jobId, String algorithm, String analysisId, Object[] params, Estimate estimate, boolean rejected) {
+		this(projectId, jobId, algorithm, analysisId, params, null, estimate, rejected);
+	}
+
+	public Job(String projectId, String jobId, String algorithm, String analysisId, Object[] params, String fingerprint, Estimate estimate, boolean rejected) {
+		this(projectId, jobId, algorithm, analysisId, params);
+		this.fingerprint = fingerprint;
+		this.estimate = estimate;
+		this.memory = estimate.getTotal();
+		this.rejected = rejected;
+	}
+
+	public Job(String projectId, String jobId, String algorithm, String analysisId, Object[] params, Status status, long memory, Long created, Long started, Long finished) {
+		this(projectId, jobId, algorithm, analysisId, params);
+		this.status = status;
+		this.memory = memory;
+		this.created = created;
+		this.started = started;
+		this.finished = finished;
+	}
+
+	public Job(Job job, Integer position, Progress progress) {
+		this(job.id.projectId, job.id.id, job.algorithm, job.analysisId, job.params, job.status, job.memory, job.created, job.started, job.finished);
+		this.fingerprint = job.fingerprint;
+		this.estimate = job.estimate;
+		this.rejected = job.rejected;
+		this.reused = job.reused;
+		this.position = position;
+		this.progress = progress;
+	}
+
+	public Job(Job job, boolean reused) {
+		this(job, job.position, job.progress);
+		this.reused = reused;
 	}
 
 	public PrimaryKey getPrimaryKey() {
@@ -49,12 +99,67 @@ public class Job {
 		return analysisId;
 	}
 
+	public Status getStatus() {
+		return status;
+	}
+
 	public boolean isCompleted() {
-		return completed;
+		return status == Status.COMPLETED;
 	}
 
 	public boolean isCancelled() {
-		return cancelled;
+		return status == Status.CANCELLED;
+	}
+
+	public long getMemory() {
+		return memory;
+	}
+
+	public Long getCreated() {
+		return created;
+	}
+
+	public Long getStarted() {
+		return started;
+	}
+
+	public Long getFinished() {
+		return finished;
+	}
+
+	/**
+	 * Retrieves the time the job has been running, or was running if it is finished
+	 *
+	 * @return runtime in milliseconds, or {@code null} if the job didn't start
+	 */
+	public Long getRuntime() {
+		if (started == null)
+			return null;
+		return (finished != null ? finished : System.currentTimeMillis()) - started;
+	}
+
+	public String getFingerprint() {
+		return fingerprint;
+	}
+
+	public Estimate getEstimate() {
+		return estimate;
+	}
+
+	public boolean isRejected() {
+		return rejected;
+	}
+
+	public boolean isReused() {
+		return reused;
+	}
+
+	public Integer getPosition() {
+		return position;
+	}
+
+	public Progress getProgress() {
+		return progress;
 	}
 
 	@Override
@@ -65,7 +170,8 @@ public class Job {
 		return Objects.equals(id, job.id) &&
 				Objects.equals(algorithm, job.algorithm) &&
 				Arrays.equals(params, job.params) &&
-				Objects.equals(analysisId, job.analysisId);
+				Objects.equals(analysisId, job.analysisId) &&
+				status == job.status;
 	}
 
 	/**
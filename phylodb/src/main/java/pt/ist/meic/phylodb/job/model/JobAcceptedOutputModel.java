@@ -9,20 +9,33 @@ import java.util.Objects;
 /**
  * A JobAcceptedOutputModel is the output model for the creation of a job
  * <p>
- * A JobAcceptedOutputModel contains the {@link #job_id}, and {@link #analysis_id} which are the generated ids, and will
- * be parsed to a response with a {@link HttpStatus#ACCEPTED} status
+ * A JobAcceptedOutputModel contains the {@link #job_id}, and {@link #analysis_id} which are the generated ids, and the {@link #memory}
+ * which is the estimated memory of the job in bytes. The {@link #reused} field tells if the ids are of an identical job that was already
+ * submitted, instead of a new one. It will be parsed to a response with a {@link HttpStatus#ACCEPTED} status
  */
 public class JobAcceptedOutputModel implements OutputModel {
 
 	private String job_id;
 	private String analysis_id;
+	private long memory;
+	private boolean reused;
 
 	public JobAcceptedOutputModel() {
 	}
 
-	public JobAcceptedOutputModel(String job_id, String analysis_id) {
+	public JobAcceptedOutputModel(String job_id, String analysis_id, long memory) {
 		this.job_id = job_id;
 		this.analysis_id = analysis_id;
+		this.memory = memory;
+	}
+
+	public JobAcceptedOutputModel(String job_id, String analysis_id, long memory, boolean reused) {
+		this(job_id, analysis_id, memory);
+		this.reused = reused;
+	}
+
+	public JobAcceptedOutputModel(Job job) {
+		this(job.getPrimaryKey().getId(), job.getAnalysisId(), job.getMemory(), job.isReused());
 	}
 
 	public String getJob_id() {
@@ -33,6 +46,14 @@ public class JobAcceptedOutputModel implements OutputModel {
 		return analysis_id;
 	}
 
+	public long getMemory() {
+		return memory;
+	}
+
+	public boolean isReused() {
+		return reused;
+	}
+
 	@Override
 	public ResponseEntity<?> toResponseEntity() {
 		return ResponseEntity.status(HttpStatus.ACCEPTED).body(this);
@@ -43,7 +64,9 @@ public class JobAcceptedOutputModel implements OutputModel {
 		if (this == o) return true;
 		if (o == null || getClass() != o.getClass()) return false;
 		JobAcceptedOutputModel that = (JobAcceptedOutputModel) o;
-		return Objects.equals(job_id, that.job_id) &&
+		return memory == that.memory &&
+				reused == that.reused &&
+				Objects.equals(job_id, that.job_id) &&
 				Objects.equals(analysis_id, that.analysis_id);
 	}
 
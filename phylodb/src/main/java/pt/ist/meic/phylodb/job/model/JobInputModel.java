@@ -14,7 +14,8 @@ import java.util.Optional;
  * <p>
  * A JobInputModel is constituted by the {@link #analysis}, and {@link #algorithm} that identify the respective algorithm,
  * and by the {@link #parameters}, that can be the dataset id in case of being an inference job, or the dataset id and inference id, in case of
- * being a visualization job.
+ * being a visualization job. The {@link #reuse} field is optional, and when it is false a new job is always submitted, even if an identical job
+ * was already submitted over the same profiles.
  */
 public class JobInputModel implements InputModel<JobRequest> {
 
@@ -23,6 +24,7 @@ public class JobInputModel implements InputModel<JobRequest> {
 	private String analysis;
 	private String algorithm;
 	private Object[] parameters;
+	private Boolean reuse;
 
 	public JobInputModel() {
 	}
@@ -33,6 +35,11 @@ public class JobInputModel implements InputModel<JobRequest> {
 		this.parameters = parameters;
 	}
 
+	public JobInputModel(String analysis, String algorithm, Object[] parameters, Boolean reuse) {
+		this(analysis, algorithm, parameters);
+		this.reuse = reuse;
+	}
+
 	public String getAnalysis() {
 		return analysis;
 	}
@@ -45,6 +52,10 @@ public class JobInputModel implements InputModel<JobRequest> {
 		return parameters;
 	}
 
+	public Boolean getReuse() {
+		return reuse;
+	}
+
 	@Override
 	public Optional<JobRequest> toDomainEntity(String... params) {
 		if (!Analysis.exists(analysis))
@@ -66,13 +77,13 @@ public class JobInputModel implements InputModel<JobRequest> {
 	private JobRequest parseInferenceJobRequest(String algorithm, Object[] parameters) {
 		if (!InferenceAlgorithm.exists(algorithm) || parameters == null || parameters.length != INFERENCE_PARAMETERS_COUNT || Arrays.stream(parameters).anyMatch(Objects::isNull))
 			return null;
-		return new JobRequest(Analysis.INFERENCE, algorithm, parameters);
+		return new JobRequest(Analysis.INFERENCE, algorithm, parameters, reuse == null || reuse);
 	}
 
 	private JobRequest parseVisualizationJobRequest(String algorithm, Object[] parameters) {
 		if (!VisualizationAlgorithm.exists(algorithm) || parameters == null || parameters.length != VISUALIZATION_PARAMETERS_COUNT || Arrays.stream(parameters).anyMatch(Objects::isNull))
 			return null;
-		return new JobRequest(Analysis.VISUALIZATION, algorithm, parameters);
+		return new JobRequest(Analysis.VISUALIZATION, algorithm, parameters, reuse == null || reuse);
 	}
 
 }
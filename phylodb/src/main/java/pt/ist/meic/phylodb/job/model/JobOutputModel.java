@@ -1,30 +1,73 @@
 package pt.ist.meic.phylodb.job.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 /**
  * A JobOutputModel is an output model for a job
  * <p>
- * A JobOutputModel contains the {@link #id} field which identify the job, and the {@link #completed}, and {@link #cancelled}
- * fields which are the status of the job.
+ * A JobOutputModel contains the {@link #id} field which identify the job, the {@link #algorithm} and the {@link #analysis_id} of the job,
+ * and the {@link #status}, {@link #completed}, and {@link #cancelled} fields which are the status of the job. The {@link #memory} is the
+ * estimated memory of the job, and the {@link #created}, {@link #started}, and {@link #finished} fields are the times of the job in milliseconds
+ * since the epoch, with the {@link #runtime} of the job in milliseconds. The {@link #position} is the position of the job in the queue, if it is
+ * waiting to be executed, and the {@link #progress} is the progress reported by the algorithm, if it is running.
  */
 public class JobOutputModel {
 
 	private String id;
+	private String algorithm;
+	private String analysis_id;
+	private String status;
 	private boolean completed;
 	private boolean cancelled;
+	private long memory;
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	private Long created;
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	private Long started;
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	private Long finished;
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	private Long runtime;
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	private Integer position;
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	private Progress progress;
 
 	public JobOutputModel() {
 	}
 
-	public JobOutputModel(Job status) {
-		this.id = status.getPrimaryKey().getId();
-		this.completed = status.isCompleted();
-		this.cancelled = status.isCancelled();
+	public JobOutputModel(Job job) {
+		this.id = job.getPrimaryKey().getId();
+		this.algorithm = job.getAlgorithm();
+		this.analysis_id = job.getAnalysisId();
+		this.status = job.getStatus().name();
+		this.completed = job.isCompleted();
+		this.cancelled = job.isCancelled();
+		this.memory = job.getMemory();
+		this.created = job.getCreated();
+		this.started = job.getStarted();
+		this.finished = job.getFinished();
+		this.runtime = job.getRuntime();
+		this.position = job.getPosition();
+		this.progress = job.getProgress();
 	}
 
 	public String getId() {
 		return id;
 	}
 
+	public String getAlgorithm() {
+		return algorithm;
+	}
+
+	public String getAnalysis_id() {
+		return analysis_id;
+	}
+
+	public String getStatus() {
+		return status;
+	}
+
 	public boolean isCompleted() {
 		return completed;
 	}
@@ -33,4 +76,32 @@ public class JobOutputModel {
 		return cancelled;
 	}
 
+	public long getMemory() {
+		return memory;
+	}
+
+	public Long getCreated() {
+		return created;
+	}
+
+	public Long getStarted() {
+		return started;
+	}
+
+	public Long getFinished() {
+		return finished;
+	}
+
+	public Long getRuntime() {
+		return runtime;
+	}
+
+	public Integer getPosition() {
+		return position;
+	}
+
+	public Progress getProgress() {
+		return progress;
+	}
+
 }
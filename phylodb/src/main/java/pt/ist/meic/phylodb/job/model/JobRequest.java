@@ -4,17 +4,25 @@ import pt.ist.meic.phylodb.analysis.Analysis;
 
 /**
  * A JobRequest allows the jobs input model to be parsed into a domain object
+ * <p>
+ * When {@link #reuse} is set, an identical job that was already submitted over the same profiles is returned instead of a new job.
  */
 public class JobRequest {
 
 	private final Analysis type;
 	private final String algorithm;
 	private final Object[] parameters;
+	private final boolean reuse;
 
 	public JobRequest(Analysis type, String algorithm, Object[] parameters) {
+		this(type, algorithm, parameters, true);
+	}
+
+	public JobRequest(Analysis type, String algorithm, Object[] parameters, boolean reuse) {
 		this.type = type;
 		this.algorithm = algorithm;
 		this.parameters = parameters;
+		this.reuse = reuse;
 	}
 
 	public Analysis getType() {
@@ -29,4 +37,8 @@ public class JobRequest {
 		return parameters;
 	}
 
+	public boolean isReuse() {
+		return reuse;
+	}
+
 }
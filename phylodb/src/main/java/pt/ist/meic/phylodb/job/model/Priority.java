@@ -0,0 +1,24 @@
+package pt.ist.meic.phylodb.job.model;
+
+import pt.ist.meic.phylodb.analysis.Analysis;
+
+/**
+ * Priority enum contains the priority classes of the jobs, where the classes that come first are executed first
+ * <p>
+ * The visualizations are interactive, since they are usually waited for by the user, while the inferences are bulk jobs.
+ */
+public enum Priority {
+
+	INTERACTIVE, BULK;
+
+	/**
+	 * Retrieves the priority class of the jobs of an analysis
+	 *
+	 * @param analysis type of the analysis
+	 * @return priority class of the analysis
+	 */
+	public static Priority of(Analysis analysis) {
+		return analysis == Analysis.VISUALIZATION ? INTERACTIVE : BULK;
+	}
+
+}
@@ -0,0 +1,39 @@
+package pt.ist.meic.phylodb.job.model;
+
+/**
+ * A Progress is the progress of a running job, as reported by the algorithm
+ * <p>
+ * A Progress is constituted by the {@link #phase} of the algorithm, by the number of items {@link #processed} out of the {@link #total}
+ * items of the phase, and by the {@link #remaining} milliseconds estimated to finish the phase, which is -1 if there isn't an estimate yet.
+ */
+public class Progress {
+
+	private final String phase;
+	private final long processed;
+	private final long total;
+	private final long remaining;
+
+	public Progress(String phase, long processed, long total, long remaining) {
+		this.phase = phase;
+		this.processed = processed;
+		this.total = total;
+		this.remaining = remaining;
+	}
+
+	public String getPhase() {
+		return phase;
+	}
+
+	public long getProcessed() {
+		return processed;
+	}
+
+	public long getTotal() {
+		return total;
+	}
+
+	public long getRemaining() {
+		return remaining;
+	}
+
+}
@@ -0,0 +1,21 @@
+package pt.ist.meic.phylodb.job.model;
+
+/**
+ * Status enum contains the states of a job
+ * <p>
+ * A job is {@link #QUEUED} until a worker takes it, and {@link #RUNNING} until it is {@link #COMPLETED}, it {@link #FAILED}, or it was {@link #CANCELLED}.
+ */
+public enum Status {
+
+	QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED;
+
+	/**
+	 * Verifies if a job in this state is no longer executed
+	 *
+	 * @return {@code true} if the state is final
+	 */
+	public boolean isFinished() {
+		return this != QUEUED && this != RUNNING;
+	}
+
+}
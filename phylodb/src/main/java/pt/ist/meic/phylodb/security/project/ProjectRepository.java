@@ -107,9 +107,9 @@ public class ProjectRepository extends VersionedRepository<Project, String> {
 				"MATCH (d)-[:CONTAINS]->(p1:Profile)-[di:DISTANCES]->(p2:Profile)\n" +
 				"SET di.deprecated = true\n" +
 				"WITH d, di.id as analysis, collect(di) as ignored\n" +
-				"MATCH (d)-[:CONTAINS]->(p:Profile)-[h:HAS {inferenceId: analysis}]->(c:Coordinate)\n" +
-				"WHERE h.deprecated = false\n" +
-				"SET h.deprecated = true";
+				"MATCH (d)-[:CONTAINS]->(c:Coordinates {inferenceId: analysis})\n" +
+				"WHERE c.deprecated = false\n" +
+				"SET c.deprecated = true";
 		execute(new Query(statement, key));
 	}
 
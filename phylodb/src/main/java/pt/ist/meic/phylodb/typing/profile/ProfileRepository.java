@@ -7,6 +7,7 @@ import pt.ist.meic.phylodb.phylogeny.allele.model.Allele;
 import pt.ist.meic.phylodb.typing.profile.model.Profile;
 import pt.ist.meic.phylodb.utils.db.BatchRepository;
 import pt.ist.meic.phylodb.utils.db.Query;
+import pt.ist.meic.phylodb.utils.service.Pair;
 import pt.ist.meic.phylodb.utils.service.VersionedEntity;
 
 import java.util.*;
@@ -146,6 +147,46 @@ public class ProfileRepository extends BatchRepository<Profile, Profile.PrimaryK
 				.anyMatch(r -> r.get("present") == null);
 	}
 
+	/**
+	 * Retrieves the number of profiles of the dataset that aren't deprecated, and the number of loci of the dataset schema
+	 *
+	 * @param projectId identifier of the project that contains the dataset
+	 * @param datasetId identifier of the dataset
+	 * @return an {@link Optional} with a {@link Pair<Long, Long>} that are the number of profiles and the number of loci, or empty if the dataset doesn't exist
+	 */
+	public Optional<Pair<Long, Long>> dimensions(String projectId, String datasetId) {
+		String statement = "MATCH (pj:Project {id: $})-[:CONTAINS]->(d:Dataset {id: $})-[r1:CONTAINS_DETAILS]->(dd:DatasetDetails)-[h:HAS]->(s:Schema)-[r2:CONTAINS_DETAILS]->(sd:SchemaDetails)\n" +
+				"WHERE NOT EXISTS(r1.to) AND r2.version = h.version\n" +
+				"OPTIONAL MATCH (sd)-[:HAS]->(l:Locus)\n" +
+				"WITH d, count(l) as loci\n" +
+				"OPTIONAL MATCH (d)-[:CONTAINS]->(p:Profile)\n" +
+				"WHERE p.deprecated = false\n" +
+				"RETURN count(p) as profiles, loci";
+		Result result = query(new Query(statement, projectId, datasetId));
+		Iterator<Map<String, Object>> it = result.iterator();
+		if (!it.hasNext())
+			return Optional.empty();
+		Map<String, Object> row = it.next();
+		return Optional.of(new Pair<>((long) row.get("profiles"), (long) row.get("loci")));
+	}
+
+	/**
+	 * Retrieves a digest of the current versions of the profiles of the dataset that aren't deprecated, which changes whenever a profile is
+	 * created, updated or removed
+	 *
+	 * @param projectId identifier of the project that contains the dataset
+	 * @param datasetId identifier of the dataset
+	 * @return an {@link Optional} with the digest of the profiles, or empty if the dataset doesn't exist
+	 */
+	public Optional<String> fingerprint(String projectId, String datasetId) {
+		String statement = "MATCH (pj:Project {id: $})-[:CONTAINS]->(d:Dataset {id: $})\n" +
+				"OPTIONAL MATCH (d)-[:CONTAINS]->(p:Profile)-[r:CONTAINS_DETAILS]->(pd:ProfileDetails)\n" +
+				"WHERE p.deprecated = false AND NOT EXISTS(r.to)\n" +
+				"WITH p.id + ':' + toString(r.version) as version ORDER BY version\n" +
+				"RETURN apoc.util.md5(collect(version))";
+		return Optional.ofNullable(query(String.class, new Query(statement, projectId, datasetId)));
+	}
+
 	private String getInsertStatement() {
 		return "MATCH (pj:Project {id: param.projectId})-[:CONTAINS]->(d:Dataset {id: param.datasetId})\n" +
 				"WHERE d.deprecated = false\n" +
@@ -4,7 +4,9 @@ import algorithm.inference.implementation.GoeBURST;
 import algorithm.inference.model.Edge;
 import algorithm.inference.model.Inference;
 import algorithm.inference.model.Matrix;
+import algorithm.inference.model.SnpMatrix;
 import algorithm.repository.RepositoryTests;
+import algorithm.utils.Progress;
 import algorithm.utils.type.Distance;
 import algorithm.utils.type.Profile;
 import algorithm.utils.type.Relation;
@@ -22,11 +24,15 @@ import java.net.URI;
 import java.util.List;
 import java.util.Arrays;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import static junit.framework.TestCase.assertTrue;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
 
 public class InferenceRepositoryTests extends RepositoryTests {
 
@@ -54,19 +60,34 @@ public class InferenceRepositoryTests extends RepositoryTests {
 			arrange(tx, "inference", "ctx-2p-1a.cypher");
 			Matrix matrix  = repository.read(tx, PROJECT_ID, DATASET_ID);
 			assertTrue(Arrays.asList(matrix.getIds()).containsAll(Arrays.asList(PROFILE1_ID, PROFILE2_ID)));
-			assertArrayEquals(new int[][] {{}, {1}}, matrix.getDistances());
+			assertDistances(new int[][] {{}, {1}}, matrix);
 			assertArrayEquals(new int[] {0, 1}, matrix.getIsolates());
 			tx.rollback();
 		}
 	}
 
+	@Test
+	public void read_cachedMatrixWithDeprecatedIsolate() throws IOException {
+		InferenceRepository repository = new InferenceRepository(database, new MatrixCache(Long.MAX_VALUE));
+		try (Transaction tx = database.beginTx()) {
+			arrange(tx, "inference", "ctx-2p-1a.cypher");
+			Matrix matrix = repository.read(tx, PROJECT_ID, DATASET_ID);
+			assertArrayEquals(new int[] {0, 1}, matrix.getIsolates());
+			tx.execute("MATCH (i:Isolate) SET i.deprecated = true");
+			Matrix cached = repository.read(tx, PROJECT_ID, DATASET_ID);
+			assertSame(matrix.getAlleles(), cached.getAlleles());
+			assertArrayEquals(new int[] {0, 0}, cached.getIsolates());
+			tx.rollback();
+		}
+	}
+
 	@Test
 	public void read_matrix2Rows1ColumnWithDeprecated() throws IOException {
 		try (Transaction tx = database.beginTx()) {
 			arrange(tx, "inference", "ctx-2p-1a-d.cypher");
 			Matrix matrix  = repository.read(tx, PROJECT_ID, DATASET_ID);
 			assertTrue(Arrays.asList(matrix.getIds()).containsAll(Arrays.asList(PROFILE1_ID, PROFILE2_ID)));
-			assertArrayEquals(new int[][] {{}, {1}}, matrix.getDistances());
+			assertDistances(new int[][] {{}, {1}}, matrix);
 			assertArrayEquals(new int[] {0, 1}, matrix.getIsolates());
 			tx.rollback();
 		}
@@ -78,7 +99,7 @@ public class InferenceRepositoryTests extends RepositoryTests {
 			arrange(tx, "inference", "ctx-2p-1a-vi.cypher");
 			Matrix matrix  = repository.read(tx, PROJECT_ID, DATASET_ID);
 			assertTrue(Arrays.asList(matrix.getIds()).containsAll(Arrays.asList(PROFILE1_ID, PROFILE2_ID)));
-			assertArrayEquals(new int[][] {{}, {1}}, matrix.getDistances());
+			assertDistances(new int[][] {{}, {1}}, matrix);
 			assertArrayEquals(new int[] {0, 1}, matrix.getIsolates());
 			tx.rollback();
 		}
@@ -90,7 +111,7 @@ public class InferenceRepositoryTests extends RepositoryTests {
 			arrange(tx, "inference", "ctx-2p-na.cypher");
 			Matrix matrix  = repository.read(tx, PROJECT_ID, DATASET_ID);
 			assertTrue(Arrays.asList(matrix.getIds()).containsAll(Arrays.asList(PROFILE1_ID, PROFILE2_ID)));
-			assertArrayEquals(new int[][] {{}, {2}}, matrix.getDistances());
+			assertDistances(new int[][] {{}, {2}}, matrix);
 			assertArrayEquals(new int[] {0, 0}, matrix.getIsolates());
 			tx.rollback();
 		}
@@ -102,7 +123,7 @@ public class InferenceRepositoryTests extends RepositoryTests {
 			arrange(tx, "inference", "ctx-np-1a.cypher");
 			Matrix matrix  = repository.read(tx, PROJECT_ID, DATASET_ID);
 			assertTrue(Arrays.asList(matrix.getIds()).containsAll(Arrays.asList(PROFILE1_ID, PROFILE2_ID, PROFILE3_ID)));
-			assertArrayEquals(new int[][] {{}, {0}, {1, 1}}, matrix.getDistances());
+			assertDistances(new int[][] {{}, {0}, {1, 1}}, matrix);
 			assertArrayEquals(new int[] {0, 0, 1}, matrix.getIsolates());
 			tx.rollback();
 		}
@@ -114,7 +135,7 @@ public class InferenceRepositoryTests extends RepositoryTests {
 			arrange(tx, "inference", "ctx-np-na.cypher");
 			Matrix matrix  = repository.read(tx, PROJECT_ID, DATASET_ID);
 			assertTrue(Arrays.asList(matrix.getIds()).containsAll(Arrays.asList(PROFILE1_ID, PROFILE2_ID, PROFILE3_ID)));
-			assertArrayEquals(new int[][] {{}, {2}, {3, 2}}, matrix.getDistances());
+			assertDistances(new int[][] {{}, {2}, {3, 2}}, matrix);
 			assertArrayEquals(new int[] {0, 0, 0}, matrix.getIsolates());
 			tx.rollback();
 		}
@@ -127,12 +148,37 @@ public class InferenceRepositoryTests extends RepositoryTests {
 			arrange(tx, "inference", "ctx-np-na-m.cypher");
 			Matrix matrix  = repository.read(tx, PROJECT_ID, DATASET_ID);
 			assertTrue(Arrays.asList(matrix.getIds()).containsAll(Arrays.asList(PROFILE1_ID, PROFILE2_ID, PROFILE3_ID)));
-			assertArrayEquals(new int[][] {{}, {2}, {3, 2}}, matrix.getDistances());
+			assertDistances(new int[][] {{}, {2}, {3, 2}}, matrix);
 			assertArrayEquals(new int[] {0, 0, 0}, matrix.getIsolates());
 			tx.rollback();
 		}
 	}
 
+	@Test
+	public void read_snpMatrix2Rows2Column() throws IOException {
+		try (Transaction tx = database.beginTx()) {
+			arrange(tx, "inference", "ctx-2p-2a-snp.cypher");
+			Matrix matrix  = repository.read(tx, PROJECT_ID, DATASET_ID);
+			assertTrue(matrix instanceof SnpMatrix);
+			assertTrue(Arrays.asList(matrix.getIds()).containsAll(Arrays.asList(PROFILE1_ID, PROFILE2_ID)));
+			assertDistances(new int[][] {{}, {1}}, matrix);
+			assertArrayEquals(new int[] {0, 0}, matrix.getIsolates());
+			tx.rollback();
+		}
+	}
+
+	@Test
+	public void read_snpMatrix2Rows2ColumnWithLowerCase() throws IOException {
+		try (Transaction tx = database.beginTx()) {
+			arrange(tx, "inference", "ctx-2p-2a-snp-l.cypher");
+			Matrix matrix  = repository.read(tx, PROJECT_ID, DATASET_ID);
+			assertFalse(matrix instanceof SnpMatrix);
+			assertTrue(Arrays.asList(matrix.getIds()).containsAll(Arrays.asList(PROFILE1_ID, PROFILE2_ID)));
+			assertDistances(new int[][] {{}, {1}}, matrix);
+			tx.rollback();
+		}
+	}
+
 	@Test
 	public void write_inferenceWith1Edge() throws IOException {
 		try (Transaction tx = database.beginTx()) {
@@ -176,6 +222,65 @@ public class InferenceRepositoryTests extends RepositoryTests {
 		}
 	}
 
+	@Test
+	public void write_inferenceInBatches() throws IOException {
+		try (Transaction tx = database.beginTx()) {
+			arrange(tx, "inference", "ctx-np-na-m.cypher");
+			tx.commit();
+		}
+		String id = "teste";
+		String[] profilesIds = new String[] {PROFILE1_ID, PROFILE2_ID, PROFILE3_ID};
+		Inference inference = new Inference(PROJECT_ID, DATASET_ID, id, profilesIds, GoeBURST.NAME);
+		inference.add(new Edge(0, 1, 2));
+		inference.add(new Edge(1, 2, 3));
+		repository.write(inference, 1);
+		try (Transaction tx = database.beginTx()) {
+			List<Relationship> edges = tx.getAllRelationships().stream()
+					.filter(r -> r.getType().equals(RelationshipType.withName(Relation.DISTANCES.name())))
+					.collect(Collectors.toList());
+			assertEdges(edges, inference.getEdges(), inference.getProfileIds(), id);
+			tx.rollback();
+		}
+	}
+
+	@Test
+	public void write_inferenceInBatchesTerminated() throws IOException {
+		try (Transaction tx = database.beginTx()) {
+			arrange(tx, "inference", "ctx-np-na-m.cypher");
+			tx.commit();
+		}
+		String id = "teste";
+		String[] profilesIds = new String[] {PROFILE1_ID, PROFILE2_ID, PROFILE3_ID};
+		Inference inference = new Inference(PROJECT_ID, DATASET_ID, id, profilesIds, GoeBURST.NAME);
+		inference.add(new Edge(0, 1, 2));
+		inference.add(new Edge(1, 2, 3));
+		AtomicInteger checks = new AtomicInteger();
+		Progress progress = Progress.start(PROJECT_ID, null, () -> {
+			if (checks.incrementAndGet() > 3)
+				throw new IllegalStateException("terminated");
+		});
+		try {
+			repository.write(inference, 1, progress);
+			fail();
+		} catch (IllegalStateException ignored) {
+		}
+		assertEquals(4, checks.get());
+		try (Transaction tx = database.beginTx()) {
+			long edges = tx.getAllRelationships().stream()
+					.filter(r -> r.getType().equals(RelationshipType.withName(Relation.DISTANCES.name())))
+					.count();
+			assertEquals(0, edges);
+			tx.rollback();
+		}
+	}
+
+	private void assertDistances(int[][] expected, Matrix matrix) {
+		assertEquals(expected.length, matrix.size());
+		for (int i = 0; i < expected.length; i++)
+			for (int j = 0; j < i; j++)
+				assertEquals(expected[i][j], matrix.distance(i, j));
+	}
+
 	private void assertEdges(List<Relationship> result, List<Edge> expected, String[] profilesIds, String inferenceId) {
 		assertEquals(expected.size(), result.size());
 		for (int i = 0; i < expected.size(); i++) {
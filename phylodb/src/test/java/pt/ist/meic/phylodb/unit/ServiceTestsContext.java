@@ -6,6 +6,7 @@ import pt.ist.meic.phylodb.analysis.inference.InferenceRepository;
 import pt.ist.meic.phylodb.analysis.inference.InferenceService;
 import pt.ist.meic.phylodb.analysis.visualization.VisualizationRepository;
 import pt.ist.meic.phylodb.analysis.visualization.VisualizationService;
+import pt.ist.meic.phylodb.job.JobExecutor;
 import pt.ist.meic.phylodb.job.JobRepository;
 import pt.ist.meic.phylodb.job.JobService;
 import pt.ist.meic.phylodb.phylogeny.allele.AlleleRepository;
@@ -53,6 +54,8 @@ public abstract class ServiceTestsContext extends Context {
 	protected VisualizationRepository visualizationRepository;
 	@MockBean
 	protected JobRepository jobRepository;
+	@MockBean
+	protected JobExecutor jobExecutor;
 
 	@InjectMocks
 	protected UserService userService;
@@ -54,9 +54,11 @@ public class VisualizationRepositoryTests extends RepositoryTestsContext {
 
 	private static Stream<Arguments> find_params() {
 		String key = "6f809af7-2c99-43f7-b674-4843c77384c7";
-		Visualization first = new Visualization(PROJECT1.getPrimaryKey(), DATASET1.getPrimaryKey().getId(), INFERENCE1.getPrimaryKey().getId(), key, false, VisualizationAlgorithm.RADIAL, Arrays.asList(COORDINATE11, COORDINATE12, COORDINATE13));
+		Visualization first = new Visualization(PROJECT1.getPrimaryKey(), DATASET1.getPrimaryKey().getId(), INFERENCE1.getPrimaryKey().getId(), key, false, VisualizationAlgorithm.RADIAL, Arrays.asList(COORDINATE11, COORDINATE12, COORDINATE13)),
+				unordered = new Visualization(PROJECT1.getPrimaryKey(), DATASET1.getPrimaryKey().getId(), INFERENCE1.getPrimaryKey().getId(), key, false, VisualizationAlgorithm.RADIAL, Arrays.asList(COORDINATE13, COORDINATE11, COORDINATE12));
 		return Stream.of(Arguments.of(first.getPrimaryKey(), new Visualization[0], null),
 				Arguments.of(first.getPrimaryKey(), new Visualization[]{first}, first),
+				Arguments.of(first.getPrimaryKey(), new Visualization[]{unordered}, first),
 				Arguments.of(null, new Visualization[0], null));
 	}
 
@@ -83,20 +85,14 @@ public class VisualizationRepositoryTests extends RepositoryTestsContext {
 		for (Visualization visualization : visualizations) {
 			String statement = "MATCH (pj:Project {id: $})-[:CONTAINS]->(d:Dataset {id: $})\n" +
 					"WHERE d.deprecated = false\n" +
-					"WITH pj, d, $ as inferenceId, $ as id, $ as algorithm, $ as deprecated\n" +
-					"UNWIND $ as coordinate\n" +
-					"MATCH (d)-[:CONTAINS]->(p:Profile {id: coordinate.profile})-[r:CONTAINS_DETAILS]->(:ProfileDetails)\n" +
-					"WHERE NOT EXISTS(r.to)\n" +
-					"CREATE (p)-[:HAS {inferenceId: inferenceId, id: id, component: coordinate.component, algorithm: algorithm, deprecated: deprecated}]->(:Coordinate {x: coordinate.x, y: coordinate.y})";
+					"CREATE (d)-[:CONTAINS]->(:Coordinates {inferenceId: $, id: $, algorithm: $, deprecated: $, profiles: $, components: $, x: $, y: $})";
 			Visualization.PrimaryKey key = visualization.getPrimaryKey();
+			List<Coordinate> coordinates = visualization.getCoordinates();
 			Query query = new Query(statement, key.getProjectId(), key.getDatasetId(), key.getInferenceId(), key.getId(), visualization.getAlgorithm().getName(), visualization.isDeprecated(),
-					visualization.getCoordinates().stream()
-							.map(c -> new Object() {
-								public final double x = c.getX();
-								public final double y = c.getY();
-								public final long component = c.getComponent();
-								public final String profile = c.getProfile().getId();
-							})
+					coordinates.stream().map(c -> c.getProfile().getId()).toArray(String[]::new),
+					coordinates.stream().mapToLong(Coordinate::getComponent).toArray(),
+					coordinates.stream().mapToDouble(Coordinate::getX).toArray(),
+					coordinates.stream().mapToDouble(Coordinate::getY).toArray()
 			);
 			execute(query);
 		}
@@ -106,10 +102,13 @@ public class VisualizationRepositoryTests extends RepositoryTestsContext {
 		List<Coordinate> list = new ArrayList<>();
 		String projectId = row.get("projectId").toString();
 		String datasetId = row.get("datasetId").toString();
-		for (Map<String, Object> coordinates: (Map<String, Object>[]) row.get("coordinates")) {
-			Profile.PrimaryKey profile = new Profile.PrimaryKey(projectId, datasetId, (String) coordinates.get("profileId"));
-			list.add(new Coordinate(profile, (long) coordinates.get("component"), (double) coordinates.get("x"), (double) coordinates.get("y")));
+		Object[] profiles = (Object[]) row.get("profiles"), components = (Object[]) row.get("components"),
+				x = (Object[]) row.get("x"), y = (Object[]) row.get("y");
+		for (int i = 0; i < profiles.length; i++) {
+			Profile.PrimaryKey profile = new Profile.PrimaryKey(projectId, datasetId, (String) profiles[i]);
+			list.add(new Coordinate(profile, ((Number) components[i]).longValue(), ((Number) x[i]).doubleValue(), ((Number) y[i]).doubleValue()));
 		}
+		list.sort(Comparator.comparingLong(Coordinate::getComponent).thenComparing(c -> c.getProfile().getId()));
 		return new Visualization(projectId,
 				datasetId,
 				row.get("inferenceId").toString(),
@@ -122,12 +121,10 @@ public class VisualizationRepositoryTests extends RepositoryTestsContext {
 
 	private Visualization[] findAll() {
 		String statement = "MATCH (pj:Project {id: $})-[:CONTAINS]->(ds:Dataset {id: $})\n" +
-				"MATCH (ds)-[:CONTAINS]->(p:Profile)-[h:HAS {inferenceId: $}]->(c:Coordinate)\n" +
-				"WITH pj, ds, h.inferenceId as inferenceId, p, h, c\n" +
-				"ORDER BY pj.id, ds.id, inferenceId, size(h.id), h.id, h.component, p.id, c.x, c.y\n" +
-				"RETURN pj.id as projectId, ds.id as datasetId, inferenceId as inferenceId, h.id as id, h.deprecated as deprecated, h.algorithm as algorithm,\n" +
-				"collect(DISTINCT {profileId: p.id, component: h.component, x: c.x, y: c.y}) as coordinates\n" +
-				"ORDER BY pj.id, ds.id, inferenceId, size(h.id), h.id";
+				"MATCH (ds)-[:CONTAINS]->(c:Coordinates {inferenceId: $})\n" +
+				"RETURN DISTINCT pj.id as projectId, ds.id as datasetId, c.inferenceId as inferenceId, c.id as id, c.deprecated as deprecated, c.algorithm as algorithm,\n" +
+				"c.profiles as profiles, c.components as components, c.x as x, c.y as y\n" +
+				"ORDER BY projectId, datasetId, inferenceId, size(id), id";
 		Result result = query(new Query(statement, PROJECT1.getPrimaryKey(), DATASET1.getPrimaryKey().getId(), INFERENCE1.getPrimaryKey().getId()));
 		if (result == null) return new Visualization[0];
 		return StreamSupport.stream(result.spliterator(), false)
@@ -1,6 +1,5 @@
 package pt.ist.meic.phylodb.unit.job;
 
-import pt.ist.meic.phylodb.utils.service.Pair;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
@@ -19,10 +18,13 @@ import pt.ist.meic.phylodb.error.ErrorOutputModel;
 import pt.ist.meic.phylodb.error.Problem;
 import pt.ist.meic.phylodb.io.output.NoContentOutputModel;
 import pt.ist.meic.phylodb.io.output.OutputModel;
+import pt.ist.meic.phylodb.job.model.Estimate;
+import pt.ist.meic.phylodb.job.model.GetJobsOutputModel;
 import pt.ist.meic.phylodb.job.model.Job;
 import pt.ist.meic.phylodb.job.model.JobAcceptedOutputModel;
 import pt.ist.meic.phylodb.job.model.JobInputModel;
 import pt.ist.meic.phylodb.job.model.JobOutputModel;
+import pt.ist.meic.phylodb.utils.service.Pair;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -59,7 +61,8 @@ public class JobControllerTests extends ControllerTestsContext {
 		MockHttpServletRequestBuilder req = post(String.format(uri, PROJECTID));
 		String inference = Analysis.INFERENCE.getName(), goeburst = InferenceAlgorithm.GOEBURST.getName(),
 				visualization = Analysis.VISUALIZATION.getName(), radial = VisualizationAlgorithm.RADIAL.getName();
-		Pair<String, String> result = new Pair<>(UUID.randomUUID().toString(), UUID.randomUUID().toString());
+		Job result = new Job(PROJECTID, UUID.randomUUID().toString(), inference + "." + goeburst, UUID.randomUUID().toString(), new Object[] {DATASETID, 3}, Estimate.inference(2, 7, 3, false), false),
+				rejected = new Job(PROJECTID, UUID.randomUUID().toString(), inference + "." + goeburst, UUID.randomUUID().toString(), new Object[] {DATASETID, 3}, Estimate.inference(100000000, 7, 3, false), true);
 		JobInputModel input1 = new JobInputModel("something", goeburst, new Object[] {DATASETID, 3}),
 				input2 = new JobInputModel(inference, "something", new Object[] {DATASETID, 3}),
 				input3 = new JobInputModel(inference, goeburst, new Object[1]),
@@ -69,8 +72,9 @@ public class JobControllerTests extends ControllerTestsContext {
 				input8 = new JobInputModel(visualization, radial, new Object[1]),
 				input9 = new JobInputModel(visualization, radial, new Object[2]),
 				input10 = new JobInputModel(inference, goeburst, new Object[] {DATASETID, INFERENCE1.getPrimaryKey().getId()});
-		return Stream.of(Arguments.of(req, input5, result, HttpStatus.ACCEPTED, new JobAcceptedOutputModel(result.getKey(), result.getValue())),
-				Arguments.of(req, input10, result, HttpStatus.ACCEPTED, new JobAcceptedOutputModel(result.getKey(), result.getValue())),
+		return Stream.of(Arguments.of(req, input5, result, HttpStatus.ACCEPTED, new JobAcceptedOutputModel(result.getPrimaryKey().getId(), result.getAnalysisId(), result.getEstimate().getTotal())),
+				Arguments.of(req, input10, result, HttpStatus.ACCEPTED, new JobAcceptedOutputModel(result.getPrimaryKey().getId(), result.getAnalysisId(), result.getEstimate().getTotal())),
+				Arguments.of(req, input5, rejected, HttpStatus.PAYLOAD_TOO_LARGE, new ErrorOutputModel(Problem.TOO_LARGE.getMessage())),
 				Arguments.of(req, input1, null, HttpStatus.BAD_REQUEST, new ErrorOutputModel(Problem.BAD_REQUEST.getMessage())),
 				Arguments.of(req, input2, null, HttpStatus.BAD_REQUEST, new ErrorOutputModel(Problem.BAD_REQUEST.getMessage())),
 				Arguments.of(req, input3, null, HttpStatus.BAD_REQUEST, new ErrorOutputModel(Problem.BAD_REQUEST.getMessage())),
@@ -100,9 +104,12 @@ public class JobControllerTests extends ControllerTestsContext {
 	@MethodSource("getJobs_params")
 	public void getInferences(MockHttpServletRequestBuilder req, List<Job> jobs, HttpStatus expectedStatus, List<JobOutputModel> expectedResult, ErrorOutputModel expectedError) throws Exception {
 		Mockito.when(jobService.getJobs(any(), anyInt(), anyInt())).thenReturn(Optional.ofNullable(jobs));
+		Mockito.when(jobService.getQueue(any())).thenReturn(new Pair<>(1, 3));
 		MockHttpServletResponse result = executeRequest(req, MediaType.APPLICATION_JSON);
 		assertEquals(expectedStatus.value(), result.getStatus());
 		if (expectedStatus.is2xxSuccessful()) {
+			assertEquals("1", result.getHeader(GetJobsOutputModel.PROJECT_DEPTH));
+			assertEquals("3", result.getHeader(GetJobsOutputModel.DEPTH));
 			List<Map<String, Object>> parsed = parseResult(List.class, result);
 			assertEquals(expectedResult.size(), parsed.size());
 			if (expectedResult.size() > 0) {
@@ -119,7 +126,7 @@ public class JobControllerTests extends ControllerTestsContext {
 
 	@ParameterizedTest
 	@MethodSource("postJob_params")
-	public void postInference(MockHttpServletRequestBuilder req, JobInputModel input, Pair<String, String> result, HttpStatus expectedStatus, OutputModel expectedResult) throws Exception {
+	public void postInference(MockHttpServletRequestBuilder req, JobInputModel input, Job result, HttpStatus expectedStatus, OutputModel expectedResult) throws Exception {
 		Mockito.when(jobService.createJob(any(), any())).thenReturn(Optional.ofNullable(result));
 		MockHttpServletResponse actual = executeRequest(req, input);
 		assertEquals(expectedStatus.value(), actual.getStatus());
@@ -0,0 +1,191 @@
+package pt.ist.meic.phylodb.unit.job;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import pt.ist.meic.phylodb.analysis.Analysis;
+import pt.ist.meic.phylodb.analysis.inference.model.InferenceAlgorithm;
+import pt.ist.meic.phylodb.analysis.visualization.model.VisualizationAlgorithm;
+import pt.ist.meic.phylodb.job.JobExecutor;
+import pt.ist.meic.phylodb.job.JobRepository;
+import pt.ist.meic.phylodb.job.model.Estimate;
+import pt.ist.meic.phylodb.job.model.Job;
+import pt.ist.meic.phylodb.job.model.Priority;
+import pt.ist.meic.phylodb.job.model.Status;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+
+public class JobExecutorTests {
+
+	private static final String PROJECT1 = UUID.randomUUID().toString(), PROJECT2 = UUID.randomUUID().toString();
+	private static final String INFERENCE = Analysis.INFERENCE.getName() + "." + InferenceAlgorithm.GOEBURST.getName(),
+			VISUALIZATION = Analysis.VISUALIZATION.getName() + "." + VisualizationAlgorithm.RADIAL.getName();
+
+	private JobExecutor executor;
+	private CountDownLatch latch = new CountDownLatch(1);
+
+	private JobRepository running() {
+		JobRepository repository = Mockito.mock(JobRepository.class);
+		Mockito.when(repository.start(any())).thenReturn(true);
+		Mockito.when(repository.isRunning(any())).thenReturn(true);
+		Mockito.when(repository.finish(any(), any())).thenReturn(true);
+		Mockito.doAnswer(i -> {
+			latch.await();
+			return null;
+		}).when(repository).run(any());
+		return repository;
+	}
+
+	private Job job(String project, String id, String algorithm, long memory) {
+		return new Job(project, id, algorithm, id, new Object[]{"dataset", 3}, new Estimate(memory, 0, 0), false);
+	}
+
+	private void assertQueued(List<Job> queued, String[] ids, int[] positions) {
+		assertEquals(ids.length, queued.size());
+		for (int i = 0; i < ids.length; i++) {
+			assertEquals(ids[i], queued.get(i).getPrimaryKey().getId());
+			assertEquals(positions[i], (int) queued.get(i).getPosition());
+		}
+	}
+
+	@AfterEach
+	public void clean() {
+		latch.countDown();
+		if (executor != null)
+			executor.shutdown();
+	}
+
+	@Test
+	public void submit_priority() {
+		executor = new JobExecutor(running(), 1, 1, Long.MAX_VALUE);
+		assertTrue(executor.submit(job(PROJECT1, "1", INFERENCE, 0), Priority.BULK));
+		assertTrue(executor.submit(job(PROJECT1, "2", INFERENCE, 0), Priority.BULK));
+		assertTrue(executor.submit(job(PROJECT2, "3", INFERENCE, 0), Priority.BULK));
+		assertTrue(executor.submit(job(PROJECT1, "4", VISUALIZATION, 0), Priority.INTERACTIVE));
+		assertQueued(executor.queued(PROJECT1), new String[]{"4", "2"}, new int[]{1, 2});
+		assertQueued(executor.queued(PROJECT2), new String[]{"3"}, new int[]{3});
+		assertEquals(2, (int) executor.depth(PROJECT1).getKey());
+		assertEquals(1, (int) executor.depth(PROJECT2).getKey());
+		assertEquals(3, (int) executor.depth(PROJECT1).getValue());
+	}
+
+	@Test
+	public void submit_projectLimit() {
+		JobRepository repository = running();
+		executor = new JobExecutor(repository, 2, 1, Long.MAX_VALUE);
+		executor.submit(job(PROJECT1, "1", INFERENCE, 0), Priority.BULK);
+		executor.submit(job(PROJECT1, "2", INFERENCE, 0), Priority.BULK);
+		executor.submit(job(PROJECT2, "3", INFERENCE, 0), Priority.BULK);
+		assertQueued(executor.queued(PROJECT1), new String[]{"2"}, new int[]{1});
+		assertQueued(executor.queued(PROJECT2), new String[0], new int[0]);
+	}
+
+	@Test
+	public void submit_memoryLimit() {
+		executor = new JobExecutor(running(), 2, 2, 100);
+		executor.submit(job(PROJECT1, "1", INFERENCE, 80), Priority.BULK);
+		executor.submit(job(PROJECT2, "2", INFERENCE, 80), Priority.BULK);
+		executor.submit(job(PROJECT2, "3", VISUALIZATION, 20), Priority.INTERACTIVE);
+		assertQueued(executor.queued(PROJECT2), new String[]{"2"}, new int[]{1});
+	}
+
+	@Test
+	public void submit_memoryBlocksQueue() {
+		executor = new JobExecutor(running(), 3, 3, 100);
+		executor.submit(job(PROJECT1, "1", INFERENCE, 60), Priority.BULK);
+		executor.submit(job(PROJECT2, "2", INFERENCE, 80), Priority.BULK);
+		executor.submit(job(PROJECT2, "3", INFERENCE, 10), Priority.BULK);
+		assertQueued(executor.queued(PROJECT2), new String[]{"2", "3"}, new int[]{1, 2});
+	}
+
+	@Test
+	public void cancel_queued() {
+		executor = new JobExecutor(running(), 1, 1, Long.MAX_VALUE);
+		Job first = job(PROJECT1, "1", INFERENCE, 0), second = job(PROJECT1, "2", INFERENCE, 0);
+		executor.submit(first, Priority.BULK);
+		executor.submit(second, Priority.BULK);
+		assertFalse(executor.cancel(first.getPrimaryKey()));
+		assertTrue(executor.cancel(second.getPrimaryKey()));
+		assertTrue(executor.queued(PROJECT1).isEmpty());
+	}
+
+	@Test
+	public void submit_afterShutdown() {
+		executor = new JobExecutor(running(), 1, 1, Long.MAX_VALUE);
+		executor.shutdown();
+		assertFalse(executor.submit(job(PROJECT1, "1", INFERENCE, 0), Priority.BULK));
+	}
+
+	@Test
+	public void run_completed() {
+		JobRepository repository = running();
+		executor = new JobExecutor(repository, 1, 1, Long.MAX_VALUE);
+		Job first = job(PROJECT1, "1", INFERENCE, 0), second = job(PROJECT1, "2", INFERENCE, 0);
+		executor.submit(first, Priority.BULK);
+		executor.submit(second, Priority.BULK);
+		latch.countDown();
+		Mockito.verify(repository, Mockito.timeout(1000)).finish(first.getPrimaryKey(), Status.COMPLETED);
+		Mockito.verify(repository, Mockito.timeout(1000)).finish(second.getPrimaryKey(), Status.COMPLETED);
+		assertTrue(executor.queued(PROJECT1).isEmpty());
+	}
+
+	@Test
+	public void run_failed() {
+		JobRepository repository = running();
+		Mockito.doThrow(new RuntimeException()).when(repository).run(any());
+		executor = new JobExecutor(repository, 1, 1, Long.MAX_VALUE);
+		Job job = job(PROJECT1, "1", INFERENCE, 0);
+		executor.submit(job, Priority.BULK);
+		Mockito.verify(repository, Mockito.timeout(1000)).finish(job.getPrimaryKey(), Status.FAILED);
+	}
+
+	@Test
+	public void run_cancelledBeforeRun() {
+		JobRepository repository = running();
+		Mockito.when(repository.isRunning(any())).thenReturn(false);
+		executor = new JobExecutor(repository, 1, 1, Long.MAX_VALUE);
+		Job job = job(PROJECT1, "1", INFERENCE, 0);
+		executor.submit(job, Priority.BULK);
+		Mockito.verify(repository, Mockito.timeout(1000)).finish(job.getPrimaryKey(), Status.FAILED);
+		Mockito.verify(repository, Mockito.never()).run(any());
+		Mockito.verify(repository, Mockito.never()).discard(any());
+	}
+
+	@Test
+	public void run_cancelledWhileRunning() {
+		JobRepository repository = running();
+		Mockito.when(repository.finish(any(), any())).thenReturn(false);
+		executor = new JobExecutor(repository, 1, 1, Long.MAX_VALUE);
+		Job job = job(PROJECT1, "1", INFERENCE, 0);
+		executor.submit(job, Priority.BULK);
+		latch.countDown();
+		Mockito.verify(repository, Mockito.timeout(1000)).discard(job);
+	}
+
+	@Test
+	public void run_killedAfterCancel() {
+		JobRepository repository = running();
+		CountDownLatch cancelled = new CountDownLatch(1);
+		Mockito.doAnswer(i -> {
+			cancelled.await();
+			throw new RuntimeException("killed");
+		}).when(repository).run(any());
+		Mockito.when(repository.finish(any(), any())).thenReturn(false);
+		executor = new JobExecutor(repository, 1, 1, Long.MAX_VALUE);
+		Job first = job(PROJECT1, "1", INFERENCE, 0), second = job(PROJECT1, "2", INFERENCE, 0);
+		executor.submit(first, Priority.BULK);
+		executor.submit(second, Priority.BULK);
+		Mockito.verify(repository, Mockito.timeout(1000)).run(first);
+		assertFalse(executor.cancel(first.getPrimaryKey()));
+		cancelled.countDown();
+		Mockito.verify(repository, Mockito.timeout(1000)).finish(first.getPrimaryKey(), Status.FAILED);
+		Mockito.verify(repository, Mockito.timeout(1000)).run(second);
+		Mockito.verify(repository, Mockito.never()).discard(any());
+	}
+
+}
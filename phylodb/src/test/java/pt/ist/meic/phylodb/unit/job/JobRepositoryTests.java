@@ -1,7 +1,7 @@
 package pt.ist.meic.phylodb.unit.job;
 
-import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -10,48 +10,53 @@ import pt.ist.meic.phylodb.unit.RepositoryTestsContext;
 import pt.ist.meic.phylodb.analysis.Analysis;
 import pt.ist.meic.phylodb.analysis.inference.model.InferenceAlgorithm;
 import pt.ist.meic.phylodb.analysis.visualization.model.VisualizationAlgorithm;
+import pt.ist.meic.phylodb.job.model.Estimate;
 import pt.ist.meic.phylodb.job.model.Job;
+import pt.ist.meic.phylodb.job.model.Status;
 import pt.ist.meic.phylodb.utils.db.Query;
 
 import java.util.*;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static pt.ist.meic.phylodb.job.JobRepository.FULLY_QUALIFIED;
-import static pt.ist.meic.phylodb.job.JobRepository.UUID_LENGTH;
 
 public class JobRepositoryTests extends RepositoryTestsContext {
 
 	private static final int LIMIT = 2;
 	private static final Job[] STATE = new Job[]{JOB1, JOB2};
 
+	private static Job job(String id, Status status) {
+		return Integer.parseInt(id) % 2 == 0
+				? new Job(PROJECT1.getPrimaryKey(), id, Analysis.VISUALIZATION.getName() + "." + VisualizationAlgorithm.RADIAL.getName(), id, new Object[]{DATASET1.getPrimaryKey().getId(), INFERENCE1.getPrimaryKey().getId()}, status, 0, null, null, null)
+				: new Job(PROJECT1.getPrimaryKey(), id, Analysis.INFERENCE.getName() + "." + InferenceAlgorithm.GOEBURST.getName(), id, new Object[]{DATASET1.getPrimaryKey().getId(), "3"}, status, 0, null, null, null);
+	}
+
+	private static Job job(Job job, Status status) {
+		Job.PrimaryKey key = job.getPrimaryKey();
+		Object[] params = Arrays.stream(job.getParams()).map(String::valueOf).toArray();
+		return new Job(key.getProjectId(), key.getId(), job.getAlgorithm(), job.getAnalysisId(), params, status, job.getMemory(), null, null, null);
+	}
+
 	private static Stream<Arguments> findAll_params() {
-		Job first = new Job(PROJECT1.getPrimaryKey(), "1", Analysis.INFERENCE.getName() + "." + InferenceAlgorithm.GOEBURST.getName(), "1", new Object[] {DATASET1.getPrimaryKey().getId(), 3}),
-				second = new Job(PROJECT1.getPrimaryKey(), "2", Analysis.VISUALIZATION.getName() + "." + VisualizationAlgorithm.RADIAL.getName(), "2", new Object[] {DATASET1.getPrimaryKey().getId(), INFERENCE1.getPrimaryKey().getId()}),
-				third = new Job(PROJECT1.getPrimaryKey(), "3", Analysis.INFERENCE.getName() + "." + InferenceAlgorithm.GOEBURST.getName(), "3", new Object[] {DATASET1.getPrimaryKey().getId(), 3}),
-				fourth = new Job(PROJECT1.getPrimaryKey(), "4", Analysis.VISUALIZATION.getName() + "." + VisualizationAlgorithm.RADIAL.getName(), "4", new Object[] {DATASET1.getPrimaryKey().getId(), INFERENCE1.getPrimaryKey().getId()});
-		Job firstE = new Job(first.getPrimaryKey().getProjectId(), first.getPrimaryKey().getId(), true, false),
-				state0 = new Job(STATE[0].getPrimaryKey().getProjectId(), STATE[0].getPrimaryKey().getId(), true, false),
-				state1 = new Job(STATE[1].getPrimaryKey().getProjectId(), STATE[1].getPrimaryKey().getId(), true, false);
+		Job first = job("1", Status.COMPLETED), second = job("2", Status.RUNNING), third = job("3", Status.FAILED), fourth = job("4", Status.QUEUED);
+		Job state0 = job(STATE[0], Status.QUEUED), state1 = job(STATE[1], Status.QUEUED);
 		return Stream.of(Arguments.of(0, new Job[0], Collections.emptyList()),
 				Arguments.of(0, new Job[]{STATE[0]}, Collections.singletonList(state0)),
-				Arguments.of(0, new Job[]{STATE[0], STATE[1], first}, Arrays.asList(firstE, state0)),
+				Arguments.of(0, new Job[]{STATE[0], STATE[1], first}, Arrays.asList(first, state1)),
 				Arguments.of(1, new Job[0], Collections.emptyList()),
 				Arguments.of(1, new Job[]{STATE[0]}, Collections.emptyList()),
-				Arguments.of(1, new Job[]{STATE[0], STATE[1], first}, Collections.singletonList(state1)),
-				Arguments.of(1, new Job[]{STATE[0], STATE[1], first, second}, Arrays.asList(state0, state1)),
+				Arguments.of(1, new Job[]{STATE[0], STATE[1], first}, Collections.singletonList(state0)),
+				Arguments.of(1, new Job[]{STATE[0], STATE[1], first, second}, Arrays.asList(state1, state0)),
 				Arguments.of(2, new Job[0], Collections.emptyList()),
 				Arguments.of(2, new Job[]{STATE[0]}, Collections.emptyList()),
-				Arguments.of(2, new Job[]{STATE[0], STATE[1], first, second, third}, Collections.singletonList(state1)),
-				Arguments.of(2, new Job[]{STATE[0], STATE[1], first, second, third, fourth}, Arrays.asList(state0, state1)),
+				Arguments.of(2, new Job[]{STATE[0], STATE[1], first, second, third}, Collections.singletonList(state0)),
+				Arguments.of(2, new Job[]{STATE[0], STATE[1], first, second, third, fourth}, Arrays.asList(state1, state0)),
 				Arguments.of(-1, new Job[0], Collections.emptyList()));
 	}
 
 	private static Stream<Arguments> exists_params() {
-		Job first = new Job(PROJECT1.getPrimaryKey(), "1", Analysis.INFERENCE.getName() + "." + InferenceAlgorithm.GOEBURST.getName(), "1", new Object[] {DATASET1.getPrimaryKey().getId(), 3}),
-				second = new Job(PROJECT1.getPrimaryKey(), "2", Analysis.VISUALIZATION.getName() + "." + VisualizationAlgorithm.RADIAL.getName(), "2", new Object[] {DATASET1.getPrimaryKey().getId(), INFERENCE1.getPrimaryKey().getId()});
+		Job first = job("1", Status.QUEUED), second = job("2", Status.QUEUED);
 		return Stream.of(Arguments.of(first.getPrimaryKey(), new Job[0], false),
 				Arguments.of(first.getPrimaryKey(), new Job[]{first}, true),
 				Arguments.of(first.getPrimaryKey(), new Job[]{second}, false),
@@ -59,56 +64,53 @@ public class JobRepositoryTests extends RepositoryTestsContext {
 	}
 
 	private static Stream<Arguments> save_params() {
-		Job first = new Job(PROJECT1.getPrimaryKey(), "1", Analysis.INFERENCE.getName() + "." + InferenceAlgorithm.GOEBURST.getName(), "1", new Object[] {DATASET1.getPrimaryKey().getId(), 3}),
-				firstE = new Job(first.getPrimaryKey().getProjectId(), first.getPrimaryKey().getId(), true, false),
-				state0 = new Job(STATE[0].getPrimaryKey().getProjectId(), STATE[0].getPrimaryKey().getId(), true, false),
-				state1 = new Job(STATE[1].getPrimaryKey().getProjectId(), STATE[1].getPrimaryKey().getId(), true, false);
-		return Stream.of(Arguments.of(first, new Job[0], new Job[]{firstE, state0, state1}, true),
+		Job first = new Job(PROJECT1.getPrimaryKey(), "1", Analysis.INFERENCE.getName() + "." + InferenceAlgorithm.GOEBURST.getName(), "1", new Object[]{DATASET1.getPrimaryKey().getId(), 3L}),
+				firstE = job(first, Status.QUEUED),
+				state0 = job(STATE[0], Status.QUEUED),
+				state1 = job(STATE[1], Status.QUEUED);
+		return Stream.of(Arguments.of(first, new Job[0], new Job[]{state0, state1, firstE}, true),
 				Arguments.of(null, new Job[0], new Job[]{state0, state1}, false));
 	}
 
 	private static Stream<Arguments> remove_params() {
-		Job first = new Job(PROJECT1.getPrimaryKey(), "1", Analysis.INFERENCE.getName() + "." + InferenceAlgorithm.GOEBURST.getName(), "1", new Object[] {DATASET1.getPrimaryKey().getId(), 3}),
-				state0 = new Job(STATE[0].getPrimaryKey().getProjectId(), STATE[0].getPrimaryKey().getId(), true, false),
-				state1 = new Job(STATE[1].getPrimaryKey().getProjectId(), STATE[1].getPrimaryKey().getId(), true, false);
-		return Stream.of(Arguments.of(first.getPrimaryKey(), new Job[0], new Job[]{state0, state1}, false),
-				Arguments.of(first.getPrimaryKey(), new Job[]{first}, new Job[]{state0, state1}, true),
+		Job queued = job("1", Status.QUEUED), running = job("2", Status.RUNNING), completed = job("3", Status.COMPLETED),
+				state0 = job(STATE[0], Status.QUEUED),
+				state1 = job(STATE[1], Status.QUEUED);
+		return Stream.of(Arguments.of(queued.getPrimaryKey(), new Job[0], new Job[]{state0, state1}, false),
+				Arguments.of(queued.getPrimaryKey(), new Job[]{queued}, new Job[]{state0, state1, job(queued, Status.CANCELLED)}, true),
+				Arguments.of(running.getPrimaryKey(), new Job[]{running}, new Job[]{state0, state1, job(running, Status.CANCELLED)}, true),
+				Arguments.of(completed.getPrimaryKey(), new Job[]{completed}, new Job[]{state0, state1, completed}, false),
 				Arguments.of(null, new Job[0], new Job[]{state0, state1}, false));
 	}
 
 	private void store(Job[] jobs) {
 		for (Job job : jobs) {
 			Job.PrimaryKey key = job.getPrimaryKey();
-			String jobName = name(key.getProjectId(), key.getId());
-			String params = Arrays.stream(job.getParams())
-					.map(s -> s.getClass().equals(String.class) ? "'" + s + "'" : String.valueOf(s))
-					.collect(Collectors.joining(","));
-			params = "'" + key.getProjectId() + "'," + params + ",'" + job.getAnalysisId() + "'";
-			String statement = "CALL apoc.periodic.submit($, 'CALL ' + $ + '(' + $ + ')') YIELD name RETURN 0";
-			execute(new Query(statement, jobName, String.format(FULLY_QUALIFIED, job.getAlgorithm()), params));
+			String[] params = Arrays.stream(job.getParams()).map(String::valueOf).toArray(String[]::new);
+			String statement = "MATCH (pj:Project {id: $}) WITH pj, size([(pj)-[:CONTAINS]->(j:Job) | j]) as created\n" +
+					"CREATE (pj)-[:CONTAINS]->(:Job {id: $, algorithm: $, analysis: $, parameters: $, status: $, memory: $, created: datetime({epochMillis: created})})";
+			execute(new Query(statement, key.getProjectId(), key.getId(), job.getAlgorithm(), job.getAnalysisId(), params, job.getStatus().name(), job.getMemory()));
 		}
 	}
 
-	private void clear() {
-		execute(new Query("CALL apoc.periodic.list() yield name as x\n" +
-				"CALL apoc.periodic.cancel(x) yield name as y return 0"));
-	}
-
 	private Job parse(Map<String, Object> row) {
-		String name = (String) row.get("name");
-		String project = name.substring(0, UUID_LENGTH);
-		String id = name.substring(UUID_LENGTH + 1);
-		return new Job(project,
-				id,
-				(boolean) row.get("completed"),
-				(boolean) row.get("cancelled")
+		return new Job(row.get("projectId").toString(),
+				row.get("id").toString(),
+				(String) row.get("algorithm"),
+				(String) row.get("analysisId"),
+				(Object[]) row.get("parameters"),
+				Status.valueOf((String) row.get("status")),
+				(long) row.get("memory"),
+				null,
+				null,
+				null
 		);
 	}
 
 	private Job[] findAll() {
-		String statement = "CALL apoc.periodic.list() YIELD name, done, cancelled\n" +
-				"RETURN name as name, done as completed, cancelled as cancelled\n" +
-				"ORDER BY size(name), name ";
+		String statement = "MATCH (pj:Project)-[:CONTAINS]->(j:Job)\n" +
+				"RETURN pj.id as projectId, j.id as id, j.algorithm as algorithm, j.analysis as analysisId, j.parameters as parameters, j.status as status, j.memory as memory\n" +
+				"ORDER BY j.created, j.id";
 		Result result = query(new Query(statement));
 		if (result == null) return new Job[0];
 		return StreamSupport.stream(result.spliterator(), false)
@@ -116,8 +118,9 @@ public class JobRepositoryTests extends RepositoryTestsContext {
 				.toArray(Job[]::new);
 	}
 
-	private String name(String projectId, String jobId) {
-		return projectId + "-" + jobId;
+	private Status status(Job.PrimaryKey key) {
+		String status = query(String.class, new Query("MATCH (pj:Project {id: $})-[:CONTAINS]->(j:Job {id: $}) RETURN j.status", key.getProjectId(), key.getId()));
+		return status == null ? null : Status.valueOf(status);
 	}
 
 	@BeforeEach
@@ -140,16 +143,11 @@ public class JobRepositoryTests extends RepositoryTestsContext {
 		inferenceRepository.save(INFERENCE1);
 	}
 
-	@AfterEach
-	public void clean() {
-		clear();
-	}
-
 	@ParameterizedTest
 	@MethodSource("findAll_params")
 	public void findAll(int page, Job[] state, List<Job> expected) {
 		store(state);
-		Optional<List<Job>> result = jobRepository.findAll(page, LIMIT, PROJECT1.getPrimaryKey(), DATASET1.getPrimaryKey().getId());
+		Optional<List<Job>> result = jobRepository.findAll(page, LIMIT, PROJECT1.getPrimaryKey());
 		if (expected.size() == 0 && !result.isPresent()) {
 			assertTrue(true);
 			return;
@@ -171,10 +169,10 @@ public class JobRepositoryTests extends RepositoryTestsContext {
 
 	@ParameterizedTest
 	@MethodSource("save_params")
-	public void save(Job inference, Job[] state, Job[] expectedState, boolean executed) {
+	public void save(Job job, Job[] state, Job[] expectedState, boolean executed) {
 		store(JobRepositoryTests.STATE);
 		store(state);
-		boolean result = jobRepository.save(inference);
+		boolean result = jobRepository.save(job);
 		if (executed) {
 			assertTrue(result);
 		} else
@@ -194,4 +192,54 @@ public class JobRepositoryTests extends RepositoryTestsContext {
 		assertArrayEquals(expectedState, stateResult);
 	}
 
+	@Test
+	public void startAndFinish() {
+		Job job = job("1", Status.QUEUED);
+		store(new Job[]{job});
+		assertTrue(jobRepository.start(job.getPrimaryKey()));
+		assertEquals(Status.RUNNING, status(job.getPrimaryKey()));
+		assertFalse(jobRepository.start(job.getPrimaryKey()));
+		assertTrue(jobRepository.isRunning(job.getPrimaryKey()));
+		assertTrue(jobRepository.finish(job.getPrimaryKey(), Status.COMPLETED));
+		assertEquals(Status.COMPLETED, status(job.getPrimaryKey()));
+		assertFalse(jobRepository.isRunning(job.getPrimaryKey()));
+		assertFalse(jobRepository.finish(job.getPrimaryKey(), Status.FAILED));
+		assertEquals(Status.COMPLETED, status(job.getPrimaryKey()));
+	}
+
+	@Test
+	public void discard() {
+		Job job = new Job(PROJECT1.getPrimaryKey(), "1", Analysis.INFERENCE.getName() + "." + InferenceAlgorithm.GOEBURST.getName(), INFERENCE1.getPrimaryKey().getId(), new Object[]{DATASET1.getPrimaryKey().getId(), "3"}, Status.CANCELLED, 0, null, null, null);
+		store(new Job[]{job});
+		jobRepository.discard(job);
+		assertFalse(inferenceRepository.exists(INFERENCE1.getPrimaryKey()));
+	}
+
+	@Test
+	public void findIdentical() {
+		String algorithm = Analysis.INFERENCE.getName() + "." + InferenceAlgorithm.GOEBURST.getName();
+		Object[] params = new Object[]{DATASET1.getPrimaryKey().getId(), 3L};
+		Job first = new Job(PROJECT1.getPrimaryKey(), "1", algorithm, "1", params, "fingerprint", new Estimate(0, 0, 0), false),
+				second = new Job(PROJECT1.getPrimaryKey(), "2", algorithm, "2", params, "fingerprint", new Estimate(0, 0, 0), false),
+				other = new Job(PROJECT1.getPrimaryKey(), "3", algorithm, "3", params, "other", new Estimate(0, 0, 0), false);
+		jobRepository.save(first);
+		jobRepository.save(second);
+		jobRepository.save(other);
+		jobRepository.remove(first.getPrimaryKey());
+		List<Job> result = jobRepository.findIdentical(PROJECT1.getPrimaryKey(), "fingerprint");
+		assertEquals(Collections.singletonList(job(second, Status.QUEUED)), result);
+		assertTrue(jobRepository.findIdentical(PROJECT2.getPrimaryKey(), "fingerprint").isEmpty());
+		assertTrue(jobRepository.findIdentical(PROJECT1.getPrimaryKey(), null).isEmpty());
+	}
+
+	@Test
+	public void interrupt() {
+		Job queued = job("1", Status.QUEUED), running = job("2", Status.RUNNING), cancelled = job("3", Status.CANCELLED);
+		store(new Job[]{queued, running, cancelled});
+		jobRepository.interrupt();
+		assertEquals(Status.FAILED, status(queued.getPrimaryKey()));
+		assertEquals(Status.FAILED, status(running.getPrimaryKey()));
+		assertEquals(Status.CANCELLED, status(cancelled.getPrimaryKey()));
+	}
+
 }
@@ -2,22 +2,24 @@ package pt.ist.meic.phylodb.unit.job;
 
 import pt.ist.meic.phylodb.utils.service.Pair;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
 import pt.ist.meic.phylodb.unit.ServiceTestsContext;
 import pt.ist.meic.phylodb.analysis.Analysis;
 import pt.ist.meic.phylodb.analysis.inference.model.InferenceAlgorithm;
 import pt.ist.meic.phylodb.analysis.visualization.model.VisualizationAlgorithm;
 import pt.ist.meic.phylodb.job.model.Job;
 import pt.ist.meic.phylodb.job.model.JobRequest;
-import pt.ist.meic.phylodb.typing.profile.model.Profile;
-import pt.ist.meic.phylodb.utils.service.Entity;
-import pt.ist.meic.phylodb.utils.service.VersionedEntity;
+import pt.ist.meic.phylodb.job.model.Status;
+import pt.ist.meic.phylodb.typing.Method;
+import pt.ist.meic.phylodb.typing.dataset.model.Dataset;
+import pt.ist.meic.phylodb.typing.schema.model.Schema;
 
-import java.io.IOException;
 import java.util.*;
 import java.util.stream.Stream;
 
@@ -28,6 +30,7 @@ import static org.mockito.ArgumentMatchers.anyInt;
 public class JobServiceTests extends ServiceTestsContext {
 
 	private static final int LIMIT = 2;
+	private static final long MEMORY = 1000000;
 	private static final Job[] STATE = new Job[]{JOB1, JOB2};
 
 	private static Stream<Arguments> getJobs_params() {
@@ -39,17 +42,48 @@ public class JobServiceTests extends ServiceTestsContext {
 
 	private static Stream<Arguments> createJob_params() {
 		JobRequest request1 = new JobRequest(Analysis.INFERENCE, InferenceAlgorithm.GOEBURST.getName(), new Object[] {DATASET1.getPrimaryKey().getId(), 3}),
-				request2 = new JobRequest(Analysis.VISUALIZATION, VisualizationAlgorithm.RADIAL.getName(), new Object[] {DATASET1.getPrimaryKey().getId(), INFERENCE1.getPrimaryKey().getId()});
-		List<Entity<Profile.PrimaryKey>> profiles1 = Collections.singletonList(new Entity<>(PROFILE1.getPrimaryKey(), false)),
-				profiles2 = Arrays.asList(new Entity<>(PROFILE1.getPrimaryKey(), false), new Entity<>(PROFILE2.getPrimaryKey(), false));
-		return Stream.of(Arguments.of(request1, Collections.emptyList(), true, true, false),
-				Arguments.of(request1, null, true, true, false),
-				Arguments.of(request1, profiles1, true, true, false),
-				Arguments.of(request1, profiles2, false, false, false),
-				Arguments.of(request1, profiles2, false, true, true),
-				Arguments.of(request2, Collections.emptyList(), false, true, false),
-				Arguments.of(request2, Collections.emptyList(), true, false, false),
-				Arguments.of(request2, profiles1, true, true, true));
+				request2 = new JobRequest(Analysis.VISUALIZATION, VisualizationAlgorithm.RADIAL.getName(), new Object[] {DATASET1.getPrimaryKey().getId(), INFERENCE1.getPrimaryKey().getId()}),
+				request3 = new JobRequest(Analysis.INFERENCE, InferenceAlgorithm.GOEBURST.getName(), new Object[] {DATASET1.getPrimaryKey().getId(), "lvs"}),
+				request4 = new JobRequest(Analysis.INFERENCE, InferenceAlgorithm.GOEBURST.getName(), new Object[] {5, 3}),
+				request5 = new JobRequest(Analysis.VISUALIZATION, VisualizationAlgorithm.RADIAL.getName(), new Object[] {5, 3});
+		Pair<Long, Long> dimensions0 = new Pair<>(0L, 7L), dimensions1 = new Pair<>(1L, 7L), dimensions2 = new Pair<>(2L, 7L),
+				dimensionsN = new Pair<>(100000L, 7L), exhaustiveN = new Pair<>(10000L, 3L);
+		return Stream.of(Arguments.of(request1, dimensions0, true, true, false, false),
+				Arguments.of(request1, null, true, true, false, false),
+				Arguments.of(request1, dimensions1, true, true, false, false),
+				Arguments.of(request1, dimensions2, false, false, false, false),
+				Arguments.of(request1, dimensions2, false, true, true, false),
+				Arguments.of(request1, dimensionsN, false, true, true, true),
+				Arguments.of(request1, exhaustiveN, false, true, true, true),
+				Arguments.of(request3, dimensions2, false, true, false, false),
+				Arguments.of(request4, dimensions2, false, true, true, false),
+				Arguments.of(request5, dimensions1, true, true, true, false),
+				Arguments.of(request2, dimensions0, false, true, false, false),
+				Arguments.of(request2, dimensions0, true, false, false, false),
+				Arguments.of(request2, dimensions1, true, true, true, false),
+				Arguments.of(request2, dimensionsN, true, true, true, true));
+	}
+
+	private static Stream<Arguments> createJob_snp_params() {
+		Pair<Long, Long> few = new Pair<>(1500L, 7L), many = new Pair<>(100L, 5000000L);
+		return Stream.of(Arguments.of(Method.MLST, few, 32000000L, false),
+				Arguments.of(Method.SNP, few, 32000000L, true),
+				Arguments.of(Method.MLST, many, 1000000000L, true),
+				Arguments.of(Method.SNP, many, 1000000000L, false));
+	}
+
+	private static Stream<Arguments> createJob_reused_params() {
+		JobRequest inference = new JobRequest(Analysis.INFERENCE, InferenceAlgorithm.GOEBURST.getName(), new Object[] {DATASET1.getPrimaryKey().getId(), 3}),
+				visualization = new JobRequest(Analysis.VISUALIZATION, VisualizationAlgorithm.RADIAL.getName(), new Object[] {DATASET1.getPrimaryKey().getId(), INFERENCE1.getPrimaryKey().getId()}),
+				fresh = new JobRequest(Analysis.INFERENCE, InferenceAlgorithm.GOEBURST.getName(), new Object[] {DATASET1.getPrimaryKey().getId(), 3}, false);
+		Job queued = job(JOB1, Status.QUEUED), completed = job(JOB1, Status.COMPLETED), visualized = job(JOB2, Status.COMPLETED);
+		return Stream.of(Arguments.of(inference, Collections.emptyList(), false, null),
+				Arguments.of(inference, Collections.singletonList(queued), false, queued),
+				Arguments.of(inference, Collections.singletonList(completed), true, completed),
+				Arguments.of(inference, Collections.singletonList(completed), false, null),
+				Arguments.of(inference, Arrays.asList(completed, queued), false, queued),
+				Arguments.of(visualization, Collections.singletonList(visualized), true, visualized),
+				Arguments.of(fresh, Collections.singletonList(queued), true, null));
 	}
 
 	private static Stream<Arguments> deleteJob_params() {
@@ -57,6 +91,11 @@ public class JobServiceTests extends ServiceTestsContext {
 				Arguments.of(STATE[0].getPrimaryKey(), false));
 	}
 
+	private static Job job(Job job, Status status) {
+		Job.PrimaryKey key = job.getPrimaryKey();
+		return new Job(key.getProjectId(), key.getId(), job.getAlgorithm(), job.getAnalysisId(), job.getParams(), status, 0, null, null, null);
+	}
+
 	@BeforeEach
 	public void init() {
 		MockitoAnnotations.initMocks(this);
@@ -66,6 +105,7 @@ public class JobServiceTests extends ServiceTestsContext {
 	@MethodSource("getJobs_params")
 	public void getInferences(int page, List<Job> expected) {
 		Mockito.when(jobRepository.findAll(anyInt(), anyInt(), any())).thenReturn(Optional.ofNullable(expected));
+		Mockito.when(jobExecutor.queued(any())).thenReturn(Collections.singletonList(new Job(JOB1.getPrimaryKey().getProjectId(), JOB1.getPrimaryKey().getId(), 1)));
 		Optional<List<Job>> result = jobService.getJobs(PROJECT1.getPrimaryKey(), page, LIMIT);
 		if (expected == null && !result.isPresent()) {
 			assertTrue(true);
@@ -76,17 +116,73 @@ public class JobServiceTests extends ServiceTestsContext {
 		List<Job> inferences = result.get();
 		assertEquals(expected.size(), inferences.size());
 		assertEquals(expected, inferences);
+		for (Job job : inferences)
+			assertEquals(job.getPrimaryKey().equals(JOB1.getPrimaryKey()) ? Integer.valueOf(1) : null, job.getPosition());
+	}
+
+	@Test
+	public void getQueue() {
+		Mockito.when(jobExecutor.depth(any())).thenReturn(new Pair<>(1, 3));
+		Pair<Integer, Integer> result = jobService.getQueue(PROJECT1.getPrimaryKey());
+		assertEquals(1, (int) result.getKey());
+		assertEquals(3, (int) result.getValue());
 	}
 
 	@ParameterizedTest
 	@MethodSource("createJob_params")
-	public void saveInference(JobRequest jobRequest, List<VersionedEntity<Profile.PrimaryKey>> profiles, boolean inference, boolean result, boolean expected) throws IOException {
-		Mockito.when(profileRepository.findAllEntities(anyInt(), anyInt(), any(), any())).thenReturn(Optional.ofNullable(profiles));
+	public void saveInference(JobRequest jobRequest, Pair<Long, Long> dimensions, boolean inference, boolean result, boolean expected, boolean rejected) {
+		Mockito.when(profileRepository.dimensions(any(), any())).thenReturn(Optional.ofNullable(dimensions));
 		Mockito.when(inferenceRepository.exists(any())).thenReturn(inference);
-		Mockito.when(jobRepository.save(any())).thenReturn(result);
+		Mockito.when(jobRepository.save(any())).thenReturn(true);
+		Mockito.when(jobExecutor.submit(any(), any())).thenReturn(result);
+		ReflectionTestUtils.setField(jobService, "memory", MEMORY);
 		String projectId = UUID.randomUUID().toString();
-		Optional<Pair<String, String>> actual = jobService.createJob(projectId, jobRequest);
+		Optional<Job> actual = jobService.createJob(projectId, jobRequest);
 		assertEquals(expected, actual.isPresent());
+		if (expected) {
+			assertEquals(rejected, actual.get().isRejected());
+			assertNotNull(actual.get().getEstimate());
+		}
+		if (rejected) {
+			Mockito.verify(jobRepository, Mockito.never()).save(any());
+			Mockito.verify(jobExecutor, Mockito.never()).submit(any(), any());
+		}
+	}
+
+	@ParameterizedTest
+	@MethodSource("createJob_snp_params")
+	public void saveInference_snp(Method method, Pair<Long, Long> dimensions, long memory, boolean rejected) {
+		Schema schema = new Schema(TAXON1.getPrimaryKey(), "snp", 1, false, method, null, Collections.emptyList());
+		JobRequest jobRequest = new JobRequest(Analysis.INFERENCE, InferenceAlgorithm.GOEBURST.getName(), new Object[] {DATASET1.getPrimaryKey().getId(), 3});
+		Mockito.when(schemaRepository.find(any(Dataset.PrimaryKey.class))).thenReturn(Optional.of(schema));
+		Mockito.when(profileRepository.dimensions(any(), any())).thenReturn(Optional.of(dimensions));
+		Mockito.when(jobRepository.save(any())).thenReturn(true);
+		Mockito.when(jobExecutor.submit(any(), any())).thenReturn(true);
+		ReflectionTestUtils.setField(jobService, "memory", memory);
+		Optional<Job> actual = jobService.createJob(PROJECT1.getPrimaryKey(), jobRequest);
+		assertTrue(actual.isPresent());
+		assertEquals(rejected, actual.get().isRejected());
+	}
+
+	@ParameterizedTest
+	@MethodSource("createJob_reused_params")
+	public void saveInference_reused(JobRequest jobRequest, List<Job> identical, boolean analysis, Job expected) {
+		Mockito.when(profileRepository.dimensions(any(), any())).thenReturn(Optional.of(new Pair<>(2L, 7L)));
+		Mockito.when(profileRepository.fingerprint(any(), any())).thenReturn(Optional.of("profiles"));
+		Mockito.when(inferenceRepository.exists(any())).thenAnswer(i -> jobRequest.getType() == Analysis.VISUALIZATION || analysis);
+		Mockito.when(visualizationRepository.exists(any())).thenReturn(analysis);
+		Mockito.when(jobRepository.findIdentical(any(), any())).thenReturn(identical);
+		Mockito.when(jobRepository.save(any())).thenReturn(true);
+		Mockito.when(jobExecutor.submit(any(), any())).thenReturn(true);
+		ReflectionTestUtils.setField(jobService, "memory", MEMORY);
+		Optional<Job> actual = jobService.createJob(PROJECT1.getPrimaryKey(), jobRequest);
+		assertTrue(actual.isPresent());
+		assertEquals(expected != null, actual.get().isReused());
+		if (expected != null) {
+			assertEquals(expected, actual.get());
+			Mockito.verify(jobExecutor, Mockito.never()).submit(any(), any());
+		} else
+			Mockito.verify(jobExecutor).submit(any(), any());
 	}
 
 	@ParameterizedTest
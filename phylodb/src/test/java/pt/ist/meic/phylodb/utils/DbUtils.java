@@ -15,7 +15,7 @@ public class DbUtils {
 	public static void clearProfiles(Session session) {
 		session.query("call apoc.periodic.iterate('MATCH (n:Profile) return n', 'DETACH DELETE n', {batchSize:1000})", Collections.emptyMap());
 		session.query("call apoc.periodic.iterate('MATCH (n:ProfileDetails) return n', 'DETACH DELETE n', {batchSize:1000})", Collections.emptyMap());
-		session.query("call apoc.periodic.iterate('MATCH (n:Coordinate) return n', 'DETACH DELETE n', {batchSize:1000})", Collections.emptyMap());
+		session.query("call apoc.periodic.iterate('MATCH (n:Coordinates) return n', 'DETACH DELETE n', {batchSize:1000})", Collections.emptyMap());
 		session.clear();
 	}
 
@@ -1,3 +1,3 @@
-CALL apoc.schema.assert({Taxon:['id'], Locus:['id'], Allele:['id'], Schema:['id'], Project:['id'], Dataset:['id'], Profile:['id'], Isolate:['id']}, {}, true)
+CALL apoc.schema.assert({Taxon:['id'], Locus:['id'], Allele:['id'], Schema:['id'], Project:['id'], Dataset:['id'], Profile:['id'], Isolate:['id'], Job:['id', 'fingerprint']}, {}, true)
 YIELD label, key, keys, unique, action
 RETURN label, key, keys, unique, action;
\ No newline at end of file
@@ -0,0 +1,11 @@
+// Mandatory when upgrading a database whose visualizations are kept as Coordinate nodes related to the profiles by HAS relationships.
+// The application and the algorithms only read the Coordinates nodes, so those visualizations aren't found until this script runs.
+// Each visualization is moved in its own transaction, and the script does nothing once no Coordinate node is left.
+CALL apoc.periodic.iterate("MATCH (d:Dataset)-[:CONTAINS]->(:Profile)-[h:HAS]->(:Coordinate) RETURN DISTINCT d, h.inferenceId as inferenceId, h.id as id",
+"MATCH (d)-[:CONTAINS]->(p:Profile)-[h:HAS {inferenceId: inferenceId, id: id}]->(c:Coordinate)
+WITH d, inferenceId, id, h.algorithm as algorithm, h.deprecated as deprecated, collect([p.id, toInteger(h.component), toFloat(c.x), toFloat(c.y)]) as rows, collect(c) as coordinates
+CREATE (d)-[:CONTAINS]->(:Coordinates {inferenceId: inferenceId, id: id, algorithm: algorithm, deprecated: deprecated,
+profiles: [r IN rows | r[0]], components: [r IN rows | r[1]], x: [r IN rows | r[2]], y: [r IN rows | r[3]]})
+FOREACH (c IN coordinates | DETACH DELETE c)", {batchSize: 1, parallel: false})
+YIELD batches, total, errorMessages
+RETURN batches, total, errorMessages;